@@ -0,0 +1,142 @@
+package com.transactioninsights.benchmarks;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compares a JMH JSON result against a stored baseline and fails when an operation got slower than
+// the threshold allows or started issuing more WebDriver commands.
+// Usage: BenchmarkBaselineCheck <result.json> <baseline.json> [threshold] [check|update]
+public class BenchmarkBaselineCheck {
+
+    private static final Type RESULTS_TYPE = new TypeToken<List<Map<String, Object>>>() {}.getType();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "Usage: BenchmarkBaselineCheck <result.json> <baseline.json> [threshold] [check|update]");
+        }
+        Path resultFile = Paths.get(args[0]);
+        Path baselineFile = Paths.get(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+        boolean update = args.length > 3 && "update".equals(args[3]);
+
+        if (update || !Files.exists(baselineFile)) {
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            Files.copy(resultFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+
+        Map<String, Measurement> current = read(resultFile);
+        Map<String, Measurement> baseline = read(baselineFile);
+        List<String> regressions = new ArrayList<>();
+
+        System.out.printf("%-70s %12s %12s %8s %10s %10s%n", "Benchmark", "Baseline", "Current", "Change",
+                "Cmds/op", "Was");
+        for (Map.Entry<String, Measurement> entry : current.entrySet()) {
+            Measurement now = entry.getValue();
+            Measurement before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %12s %12.3f %8s %10.1f %10s%n", entry.getKey(), "-", now.score, "new",
+                        now.commandsPerOp(), "-");
+                continue;
+            }
+            double change = (now.score - before.score) / before.score;
+            System.out.printf("%-70s %12.3f %12.3f %+7.1f%% %10.1f %10.1f%n", entry.getKey(), before.score,
+                    now.score, change * 100, now.commandsPerOp(), before.commandsPerOp());
+
+            // A slowdown only counts when it also clears the run-to-run error of both measurements
+            double noise = Math.max(now.error, before.error);
+            if (change > threshold && now.score - before.score > noise) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s (%+.1f%%)", entry.getKey(), before.score,
+                        now.score, now.unit, change * 100));
+            }
+            if (now.commandsPerOp() > before.commandsPerOp() + 0.5) {
+                regressions.add(String.format("%s: WebDriver commands per op %.1f -> %.1f", entry.getKey(),
+                        before.commandsPerOp(), now.commandsPerOp()));
+            }
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.println("Not measured in this run: " + missing);
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Benchmark regressions against " + baselineFile + ":\n  "
+                    + String.join("\n  ", regressions));
+        }
+        System.out.println("No regressions beyond " + Math.round(threshold * 100) + "% against " + baselineFile);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Measurement> read(Path file) throws IOException {
+        List<Map<String, Object>> results = new Json().toType(Files.readString(file), RESULTS_TYPE);
+        Map<String, Measurement> measurements = new TreeMap<>();
+        for (Map<String, Object> result : results) {
+            String key = (String) result.get("benchmark");
+            Object params = result.get("params");
+            if (params instanceof Map) {
+                key += new TreeMap<>((Map<String, Object>) params);
+            }
+            Map<String, Object> primary = (Map<String, Object>) result.get("primaryMetric");
+            Map<String, Object> secondary = (Map<String, Object>) result.getOrDefault("secondaryMetrics",
+                    new LinkedHashMap<>());
+            measurements.put(key, new Measurement(number(primary.get("score")), number(primary.get("scoreError")),
+                    String.valueOf(primary.get("scoreUnit")), secondaryScore(secondary, "commands"),
+                    secondaryScore(secondary, "invocations")));
+        }
+        return measurements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double secondaryScore(Map<String, Object> secondary, String name) {
+        Object metric = secondary.get(name);
+        return metric instanceof Map ? number(((Map<String, Object>) metric).get("score")) : 0;
+    }
+
+    // JMH writes "NaN" as a string when the error cannot be computed (e.g. a single iteration)
+    private static double number(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            double parsed = Double.parseDouble(String.valueOf(value));
+            return Double.isNaN(parsed) ? 0 : parsed;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static class Measurement {
+        final double score;
+        final double error;
+        final String unit;
+        final double commands;
+        final double invocations;
+
+        Measurement(double score, double error, String unit, double commands, double invocations) {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.commands = commands;
+            this.invocations = invocations;
+        }
+
+        double commandsPerOp() {
+            return invocations == 0 ? 0 : commands / invocations;
+        }
+    }
+}
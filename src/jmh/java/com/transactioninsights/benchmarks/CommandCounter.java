@@ -0,0 +1,44 @@
+package com.transactioninsights.benchmarks;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counts calls that become WebDriver HTTP commands. Accessors such as manage() or switchTo()
+// only return local helper objects, so they are not counted.
+public class CommandCounter implements WebDriverListener {
+
+    private static final Set<String> LOCAL_CALLS = Set.of("manage", "switchTo", "navigate", "getWrappedDriver",
+            "getWrappedElement", "hashCode", "equals", "toString");
+
+    private final AtomicLong commands = new AtomicLong();
+
+    @Override
+    public void beforeAnyWebDriverCall(WebDriver driver, Method method, Object[] args) {
+        count(method);
+    }
+
+    @Override
+    public void beforeAnyWebElementCall(WebElement element, Method method, Object[] args) {
+        count(method);
+    }
+
+    @Override
+    public void beforeAnyNavigationCall(WebDriver.Navigation navigation, Method method, Object[] args) {
+        count(method);
+    }
+
+    private void count(Method method) {
+        if (!LOCAL_CALLS.contains(method.getName())) {
+            commands.incrementAndGet();
+        }
+    }
+
+    public long get() {
+        return commands.get();
+    }
+}
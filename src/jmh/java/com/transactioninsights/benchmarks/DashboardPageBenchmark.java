@@ -0,0 +1,148 @@
+package com.transactioninsights.benchmarks;
+
+import com.transactioninsights.driver.DriverFactory;
+import com.transactioninsights.fixture.DashboardFixtureServer;
+import com.transactioninsights.fixture.TransactionDataset;
+import com.transactioninsights.pages.DashboardPage;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency and WebDriver command cost of DashboardPage operations against the fixture dashboard,
+// one headless Chrome session per trial and table size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class DashboardPageBenchmark {
+
+    private static final String[] QUERIES = { "Arjun", "Priya", "Completed", "2024-0" };
+
+    @Param({ "10", "1000", "10000" })
+    public int rows;
+
+    private DashboardFixtureServer server;
+    private WebDriver rawDriver;
+    private CommandCounter counter;
+    private DashboardPage page;
+    private int queryIndex;
+    private boolean modalOpen;
+
+    // Per-iteration totals; divide commands by invocations for commands per operation
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Commands {
+        public long commands;
+        public long invocations;
+
+        private long before;
+
+        void start(CommandCounter counter) {
+            before = counter.get();
+        }
+
+        void stop(CommandCounter counter) {
+            commands += counter.get() - before;
+            invocations++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startDashboard() {
+        server = DashboardFixtureServer.start(0, new TransactionDataset(rows, 42), 0, 60_000);
+        rawDriver = DriverFactory.createDriverAt(server.getUrl());
+        counter = new CommandCounter();
+        WebDriver driver = new EventFiringDecorator<>(counter).decorate(rawDriver);
+        page = new DashboardPage(driver);
+        if (!page.isDashboardLoaded() || page.getRowCount() != rows) {
+            throw new IllegalStateException("Fixture dashboard did not render " + rows + " rows");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDashboard() {
+        if (rawDriver != null) {
+            rawDriver.quit();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    // The modal opened by clickFirstSuccessfulLink is closed outside the measured region
+    @TearDown(Level.Invocation)
+    public void closeModal() {
+        if (modalOpen) {
+            page.closeModal();
+            modalOpen = false;
+        }
+    }
+
+    @Benchmark
+    public boolean isDashboardLoaded(Commands commands) {
+        commands.start(counter);
+        boolean loaded = page.isDashboardLoaded();
+        commands.stop(counter);
+        return loaded;
+    }
+
+    @Benchmark
+    public int getRowCount(Commands commands) {
+        commands.start(counter);
+        int count = page.getRowCount();
+        commands.stop(counter);
+        return count;
+    }
+
+    @Benchmark
+    public boolean verifyTableColumnsExist(Commands commands) {
+        commands.start(counter);
+        boolean present = page.verifyTableColumnsExist(TransactionDataset.COLUMNS);
+        commands.stop(counter);
+        return present;
+    }
+
+    @Benchmark
+    public DashboardPage sortColumn(Commands commands) {
+        commands.start(counter);
+        DashboardPage result = page.sortColumn("Total");
+        commands.stop(counter);
+        return result;
+    }
+
+    @Benchmark
+    public DashboardPage searchTransaction(Commands commands) {
+        // Rotate queries so every invocation changes the input and triggers a reload
+        String query = QUERIES[queryIndex++ % QUERIES.length];
+        commands.start(counter);
+        DashboardPage result = page.searchTransaction(query);
+        commands.stop(counter);
+        return result;
+    }
+
+    @Benchmark
+    public DashboardPage clickFirstSuccessfulLink(Commands commands) {
+        commands.start(counter);
+        DashboardPage result = page.clickFirstSuccessfulLink();
+        commands.stop(counter);
+        modalOpen = true;
+        return result;
+    }
+}
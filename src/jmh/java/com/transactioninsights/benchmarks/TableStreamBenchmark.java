@@ -0,0 +1,92 @@
+package com.transactioninsights.benchmarks;
+
+import com.transactioninsights.driver.DriverFactory;
+import com.transactioninsights.fixture.DashboardFixtureServer;
+import com.transactioninsights.fixture.TransactionDataset;
+import com.transactioninsights.pages.DashboardPage;
+import com.transactioninsights.pages.TableReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+
+import java.util.concurrent.TimeUnit;
+
+// Time and WebDriver commands to read a whole table through TableReader, for each fixture rendering.
+// One operation walks every row; the DOM never holds more than fixture page size rows when paged or virtual.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TableStreamBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    @Param({ "paged", "virtual" })
+    public String render;
+
+    @Param({ "500" })
+    public int chunkSize;
+
+    private DashboardFixtureServer server;
+    private WebDriver rawDriver;
+    private CommandCounter counter;
+    private DashboardPage page;
+
+    @Setup(Level.Trial)
+    public void startDashboard() {
+        server = DashboardFixtureServer.start(0, new TransactionDataset(rows, 42), 0, 60_000, render, PAGE_SIZE);
+        rawDriver = DriverFactory.createDriverAt(server.getUrl());
+        counter = new CommandCounter();
+        WebDriver driver = new EventFiringDecorator<>(counter).decorate(rawDriver);
+        page = new DashboardPage(driver);
+        if (!page.isDashboardLoaded() || page.getTotalRowCount() != rows) {
+            throw new IllegalStateException("Fixture dashboard did not report " + rows + " rows");
+        }
+    }
+
+    // Every read starts from a freshly loaded first page, outside the measured region
+    @Setup(Level.Invocation)
+    public void reload() {
+        rawDriver.get(server.getUrl());
+        page.isDashboardLoaded();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDashboard() {
+        if (rawDriver != null) {
+            rawDriver.quit();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public int streamTable(DashboardPageBenchmark.Commands commands) {
+        commands.start(counter);
+        TableReader.Stats stats = page.streamTable(chunkSize, chunk -> { });
+        commands.stop(counter);
+        if (stats.getRowsRead() != rows || stats.getMaxRenderedRows() > PAGE_SIZE) {
+            throw new IllegalStateException("Read " + stats.getRowsRead() + " of " + rows + " rows with up to "
+                    + stats.getMaxRenderedRows() + " rendered");
+        }
+        return stats.getRowsRead();
+    }
+}
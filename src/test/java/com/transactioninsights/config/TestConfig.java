@@ -2,7 +2,12 @@ package com.transactioninsights.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class TestConfig {
     private static Properties properties;
@@ -18,27 +23,290 @@ public class TestConfig {
         }
     }
 
+    // System properties (-Dkey=value) take precedence over config.properties
+    private static String get(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
     public static String getAppUrl() {
-        return properties.getProperty("baseUrl", "http://localhost:3000/");
+        return get("baseUrl", "http://localhost:3000/");
     }
 
     public static int getExplicitWait() {
-        return Integer.parseInt(properties.getProperty("explicit.wait", "10"));
+        return Integer.parseInt(get("explicit.wait", "10"));
+    }
+
+    public static int getScriptTimeout() {
+        return Integer.parseInt(get("script.timeout", "30"));
+    }
+
+    public static int getPageLoadTimeout() {
+        return Integer.parseInt(get("page.load.timeout", "30"));
+    }
+
+    public static String getDriverBackend() {
+        return get("driver.backend", "local");
+    }
+
+    public static String getGridUrl() {
+        return get("grid.url", "http://localhost:4444");
+    }
+
+    public static int getGridQueueTimeout() {
+        return Integer.parseInt(get("grid.queue.timeout", "300"));
+    }
+
+    public static int getGridPollMillis() {
+        return Integer.parseInt(get("grid.poll.ms", "500"));
+    }
+
+    public static String getBrowserProfile() {
+        return get("browser.profile", "standard");
     }
 
-    public static int getImplicitWait() {
-        return Integer.parseInt(properties.getProperty("implicit.wait", "10"));
+    public static String getBrowserWindowSize() {
+        return get("browser.window.size", "1920,1080");
+    }
+
+    public static boolean isBrowserImagesEnabled() {
+        return Boolean.parseBoolean(get("browser.images.enabled", "true"));
+    }
+
+    public static String getPageLoadStrategy() {
+        return get("browser.page.load.strategy", "eager");
+    }
+
+    public static String getBrowserProfileTemplate() {
+        return get("browser.profile.template", "").trim();
     }
 
     public static int getRetryCount() {
-        return Integer.parseInt(properties.getProperty("retry.count", "2"));
+        return Integer.parseInt(get("retry.count", "2"));
+    }
+
+    // "test" re-runs the whole method; "step" first retries idempotent page actions in the same session
+    public static String getRetryMode() {
+        return get("retry.mode", "step");
+    }
+
+    public static int getStepRetryAttempts() {
+        return Integer.parseInt(get("step.retry.attempts", "2"));
+    }
+
+    public static long getStepRetryBackoffMillis() {
+        return Long.parseLong(get("step.retry.backoff.ms", "250"));
     }
 
     public static String getReportPath() {
-        return properties.getProperty("report.path", "test-output/extent-report.html");
+        return get("report.path", "test-output/extent-report.html");
     }
 
     public static boolean isScreenshotOnFailureEnabled() {
-        return Boolean.parseBoolean(properties.getProperty("screenshot.on.failure", "true"));
+        return Boolean.parseBoolean(get("screenshot.on.failure", "true"));
+    }
+
+    public static String getScreenshotFormat() {
+        return get("screenshot.format", "jpg");
+    }
+
+    public static float getScreenshotQuality() {
+        return Float.parseFloat(get("screenshot.quality", "0.75"));
+    }
+
+    public static int getScreenshotMaxWidth() {
+        return Integer.parseInt(get("screenshot.max.width", "1280"));
+    }
+
+    public static int getReportFlushEveryTests() {
+        return Integer.parseInt(get("report.flush.every.tests", "25"));
+    }
+
+    public static int getReportFlushEverySeconds() {
+        return Integer.parseInt(get("report.flush.every.seconds", "60"));
+    }
+
+    public static int getReportQueueCapacity() {
+        return Integer.parseInt(get("report.queue.capacity", "10000"));
+    }
+
+    public static boolean isCommandTimingEnabled() {
+        return Boolean.parseBoolean(get("command.timing.enabled", "true"));
+    }
+
+    public static boolean isDriverPoolEnabled() {
+        return Boolean.parseBoolean(get("driver.pool.enabled", "false"));
+    }
+
+    public static int getDriverPoolSize() {
+        int size = Integer.parseInt(get("driver.pool.size", "1"));
+        return isParallelEnabled() ? Math.max(size, getThreadCount()) : size;
+    }
+
+    public static int getDriverPoolTimeout() {
+        return Integer.parseInt(get("driver.pool.timeout", "120"));
+    }
+
+    // per-test (reload for every test), per-class or per-session (load once, reset in-page between tests)
+    public static String getNavigationMode() {
+        String mode = get("navigation.mode", "per-test").trim().toLowerCase(Locale.ROOT);
+        if (!List.of("per-test", "per-class", "per-session").contains(mode)) {
+            throw new IllegalArgumentException("Unsupported navigation.mode: " + mode
+                    + " (expected per-test, per-class or per-session)");
+        }
+        return mode;
+    }
+
+    public static boolean isNavigationPerTest() {
+        return "per-test".equals(getNavigationMode());
+    }
+
+    public static String getParallelMode() {
+        return get("parallel.mode", "none");
+    }
+
+    public static boolean isParallelEnabled() {
+        return !"none".equalsIgnoreCase(getParallelMode());
+    }
+
+    public static int getThreadCount() {
+        return Integer.parseInt(get("parallel.thread.count", "1"));
+    }
+
+    public static String getHistoryDir() {
+        return get("history.dir", ".test-history");
+    }
+
+    public static long getDefaultTestDuration() {
+        return Long.parseLong(get("history.default.duration.ms", "5000"));
+    }
+
+    public static boolean isLongestFirstEnabled() {
+        return Boolean.parseBoolean(get("history.longest.first", "true"));
+    }
+
+    public static int getHistoryWindow() {
+        return Integer.parseInt(get("history.window", "50"));
+    }
+
+    public static int getHistoryCompactThreshold() {
+        return Integer.parseInt(get("history.compact.threshold", "10000"));
+    }
+
+    public static boolean isQuarantineEnabled() {
+        return Boolean.parseBoolean(get("quarantine.enabled", "true"));
+    }
+
+    public static double getQuarantineThreshold() {
+        return Double.parseDouble(get("quarantine.threshold", "0.3"));
+    }
+
+    public static int getQuarantineMinRuns() {
+        return Integer.parseInt(get("quarantine.min.runs", "5"));
+    }
+
+    // Statuses the table may show; empty skips the status check
+    public static List<String> getConsistencyStatuses() {
+        return Arrays.stream(get("consistency.statuses", "Completed,Processing,Failed").split(","))
+                .map(String::trim)
+                .filter(status -> !status.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public static String getConsistencyDatePattern() {
+        return get("consistency.date.pattern", "yyyy-MM-dd");
+    }
+
+    public static int getConsistencyParallelThreshold() {
+        return Integer.parseInt(get("consistency.parallel.threshold", "10000"));
+    }
+
+    public static boolean isRefreshProbeEnabled() {
+        return Boolean.parseBoolean(get("refresh.probe.enabled", "false"));
+    }
+
+    public static long getRefreshProbeWindowMillis() {
+        return Long.parseLong(get("refresh.probe.window.ms", "30000"));
+    }
+
+    public static long getRefreshProbeSampleMillis() {
+        return Long.parseLong(get("refresh.probe.sample.ms", "1000"));
+    }
+
+    public static double getRefreshBudgetRenderMillis() {
+        return Double.parseDouble(get("refresh.budget.render.ms", "1000"));
+    }
+
+    public static double getRefreshBudgetLongTaskMillis() {
+        return Double.parseDouble(get("refresh.budget.long.task.ms", "250"));
+    }
+
+    public static double getRefreshBudgetLayoutShift() {
+        return Double.parseDouble(get("refresh.budget.layout.shift", "0.1"));
+    }
+
+    public static double getRefreshBudgetHeapGrowthMb() {
+        return Double.parseDouble(get("refresh.budget.heap.growth.mb", "10"));
+    }
+
+    public static double getRefreshBudgetNodeGrowth() {
+        return Double.parseDouble(get("refresh.budget.node.growth", "500"));
+    }
+
+    public static boolean isNetworkWaitEnabled() {
+        return Boolean.parseBoolean(get("network.wait.enabled", "false"));
+    }
+
+    public static int getNetworkIdleMillis() {
+        return Integer.parseInt(get("network.idle.ms", "500"));
+    }
+
+    public static Set<String> getNetworkResourceTypes() {
+        return Arrays.stream(get("network.resource.types", "XHR,Fetch").split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    public static String getNetworkResponsePattern() {
+        return get("network.response.pattern", "");
+    }
+
+    public static boolean isFixtureEnabled() {
+        return Boolean.parseBoolean(get("fixture.enabled", "false"));
+    }
+
+    // Paged and virtual rendering keep the DOM small, so they allow far larger datasets
+    public static int getFixtureRows() {
+        int rows = Integer.parseInt(get("fixture.rows", "200"));
+        int max = "all".equals(getFixtureRender()) ? 100_000 : 1_000_000;
+        if (rows < 10 || rows > max) {
+            throw new IllegalArgumentException("fixture.rows must be between 10 and " + max + " with fixture.render="
+                    + getFixtureRender() + ", got " + rows);
+        }
+        return rows;
+    }
+
+    public static String getFixtureRender() {
+        return get("fixture.render", "all");
+    }
+
+    public static int getFixturePageSize() {
+        return Integer.parseInt(get("fixture.page.size", "100"));
+    }
+
+    public static long getFixtureSeed() {
+        return Long.parseLong(get("fixture.seed", "42"));
+    }
+
+    public static int getFixturePort() {
+        return Integer.parseInt(get("fixture.port", "0"));
+    }
+
+    public static int getFixtureLatencyMillis() {
+        return Integer.parseInt(get("fixture.latency.ms", "0"));
+    }
+
+    public static int getFixtureRefreshMillis() {
+        return Integer.parseInt(get("fixture.refresh.ms", "5000"));
     }
 }
@@ -0,0 +1,250 @@
+package com.transactioninsights.driver;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class DriverFactory {
+
+    public static final String STANDARD_PROFILE = "standard";
+    public static final String FAST_PROFILE = "fast";
+
+    // Background services a test browser never needs; each one costs start-up time or network traffic
+    private static final String[] FAST_LAUNCH_FLAGS = {
+            "--disable-extensions",
+            "--disable-background-networking",
+            "--disable-component-update",
+            "--disable-default-apps",
+            "--disable-sync",
+            "--disable-client-side-phishing-detection",
+            "--disable-features=Translate,OptimizationHints,MediaRouter",
+            "--no-first-run",
+            "--no-default-browser-check",
+            "--metrics-recording-only",
+            "--mute-audio"
+    };
+
+    public static WebDriver createDriver() {
+        return createDriver(TestConfig.getBrowserProfile());
+    }
+
+    // "standard" is the original minimal profile; "fast" is tuned for launch latency (browser.* settings)
+    public static WebDriver createDriver(String profile) {
+        boolean fast = FAST_PROFILE.equalsIgnoreCase(profile);
+        if (!fast && !STANDARD_PROFILE.equalsIgnoreCase(profile)) {
+            throw new IllegalArgumentException("Unsupported browser.profile: " + profile
+                    + " (expected standard or fast)");
+        }
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new");
+        options.addArguments("--remote-allow-origins=*");
+        options.addArguments("--disable-notifications");
+
+        Path userDataDir = null;
+        if (fast) {
+            options.addArguments(FAST_LAUNCH_FLAGS);
+            // Maximizing is meaningless headless; a fixed size also keeps layouts and screenshots stable
+            options.addArguments("--window-size=" + TestConfig.getBrowserWindowSize());
+            if (!TestConfig.isBrowserImagesEnabled()) {
+                options.addArguments("--blink-settings=imagesEnabled=false");
+            }
+            // Safe because every wait is explicit: the table is populated by XHR after DOMContentLoaded anyway
+            PageLoadStrategy strategy = PageLoadStrategy.fromString(TestConfig.getPageLoadStrategy());
+            if (strategy == null) {
+                throw new IllegalArgumentException("Unsupported browser.page.load.strategy: "
+                        + TestConfig.getPageLoadStrategy() + " (expected normal, eager or none)");
+            }
+            options.setPageLoadStrategy(strategy);
+            // The template lives on this machine; Grid nodes launch with their own profile
+            userDataDir = isGrid() ? null : copyProfileTemplate();
+            if (userDataDir != null) {
+                options.addArguments("--user-data-dir=" + userDataDir.toAbsolutePath());
+            }
+        }
+
+        String profileName = fast ? FAST_PROFILE : STANDARD_PROFILE;
+        WebDriver driver;
+        if (isGrid()) {
+            driver = createRemoteDriver(options, profileName);
+        } else {
+            long start = System.nanoTime();
+            try {
+                driver = userDataDir == null ? new ChromeDriver(options)
+                        : new TemporaryProfileDriver(options, userDataDir);
+            } catch (RuntimeException e) {
+                deleteQuietly(userDataDir);
+                throw e;
+            }
+            LaunchMetrics.recordStartup(profileName, System.nanoTime() - start);
+        }
+
+        if (!fast) {
+            driver.manage().window().maximize();
+        }
+        // Waits are explicit (DomWait); an implicit wait would stall every empty findElements lookup
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(TestConfig.getScriptTimeout()));
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(TestConfig.getPageLoadTimeout()));
+        return driver;
+    }
+
+    public static boolean isGrid() {
+        String backend = TestConfig.getDriverBackend();
+        if (!"local".equalsIgnoreCase(backend) && !"grid".equalsIgnoreCase(backend)) {
+            throw new IllegalArgumentException("Unsupported driver.backend: " + backend + " (expected local or grid)");
+        }
+        return "grid".equalsIgnoreCase(backend);
+    }
+
+    // Waits for a free Grid slot before asking for the session, then augments the driver so DevTools
+    // (NetworkMonitor) works through the Grid's CDP endpoint
+    private static WebDriver createRemoteDriver(ChromeOptions options, String profileName) {
+        URL gridUrl;
+        try {
+            gridUrl = new URL(TestConfig.getGridUrl());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid grid.url: " + TestConfig.getGridUrl(), e);
+        }
+        long queueWait = GridCapacity.acquire(options.getBrowserName());
+        long start = System.nanoTime();
+        RemoteWebDriver remote;
+        try {
+            remote = new RemoteWebDriver(gridUrl, options);
+        } finally {
+            GridCapacity.release();
+        }
+        long startup = System.nanoTime() - start;
+        LaunchMetrics.recordQueueWait(profileName, queueWait);
+        LaunchMetrics.recordStartup(profileName, startup);
+        return new Augmenter().augment(remote);
+    }
+
+    public static WebDriver createDriverAt(String url) {
+        return createDriverAt(url, TestConfig.getBrowserProfile());
+    }
+
+    public static WebDriver createDriverAt(String url, String profile) {
+        WebDriver driver = createDriver(profile);
+        try {
+            long start = System.nanoTime();
+            driver.get(url);
+            LaunchMetrics.recordFirstNavigation(FAST_PROFILE.equalsIgnoreCase(profile) ? FAST_PROFILE
+                    : STANDARD_PROFILE, System.nanoTime() - start);
+            return driver;
+        } catch (RuntimeException e) {
+            driver.quit();
+            throw e;
+        }
+    }
+
+    // Launches Chrome once on an empty user-data-dir at browser.profile.template and loads the app, so
+    // first-run setup, component caches and the app's cached assets are in place for every later copy
+    public static Path seedProfileTemplate(String url) {
+        if (TestConfig.getBrowserProfileTemplate().isEmpty()) {
+            throw new IllegalStateException("browser.profile.template is not set");
+        }
+        Path template = Paths.get(TestConfig.getBrowserProfileTemplate());
+        deleteQuietly(template);
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new", "--remote-allow-origins=*", "--no-first-run",
+                "--no-default-browser-check", "--user-data-dir=" + template.toAbsolutePath());
+        WebDriver driver = new ChromeDriver(options);
+        try {
+            driver.get(url);
+        } finally {
+            driver.quit();
+        }
+        return template;
+    }
+
+    // Each session gets its own copy: Chrome locks a user-data-dir for the lifetime of the browser
+    private static Path copyProfileTemplate() {
+        String configured = TestConfig.getBrowserProfileTemplate();
+        if (configured.isEmpty()) {
+            return null;
+        }
+        Path template = Paths.get(configured);
+        if (!Files.isDirectory(template)) {
+            System.out.println("Browser profile template " + template + " not found, launching with a fresh profile");
+            return null;
+        }
+        try {
+            Path target = Files.createTempDirectory("chrome-profile-");
+            try (Stream<Path> files = Files.walk(template)) {
+                files.forEach(source -> {
+                    // Singleton* lock files are symlinks to the seeding browser's process
+                    if (Files.isSymbolicLink(source) || source.getFileName().toString().startsWith("Singleton")) {
+                        return;
+                    }
+                    Path destination = target.resolve(template.relativize(source).toString());
+                    try {
+                        if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                            Files.createDirectories(destination);
+                        } else {
+                            Files.copy(source, destination, StandardCopyOption.COPY_ATTRIBUTES);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return target;
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Failed to copy browser profile template " + template + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                    // Best effort; temp directories are cleaned by the OS eventually
+                }
+            });
+        } catch (IOException ignored) {
+            // Best effort
+        }
+    }
+
+    // Deletes the session's copy of the profile template once the browser has exited
+    private static class TemporaryProfileDriver extends ChromeDriver {
+        private final Path userDataDir;
+
+        TemporaryProfileDriver(ChromeOptions options, Path userDataDir) {
+            super(options);
+            this.userDataDir = userDataDir;
+        }
+
+        @Override
+        public void quit() {
+            try {
+                super.quit();
+            } finally {
+                deleteQuietly(userDataDir);
+            }
+        }
+    }
+}
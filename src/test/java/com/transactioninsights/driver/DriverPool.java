@@ -0,0 +1,191 @@
+package com.transactioninsights.driver;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class DriverPool {
+
+    private static final ConcurrentLinkedDeque<WebDriver> idle = new ConcurrentLinkedDeque<>();
+    private static final Set<WebDriver> sessions = ConcurrentHashMap.newKeySet();
+    // Navigation scope (see navigation.mode) each session's page was last loaded for; absent = freshly loaded
+    private static final Map<WebDriver, String> pageScopes = new ConcurrentHashMap<>();
+    // Told about every session that is quit, so per-session state kept elsewhere can be dropped
+    private static final List<Consumer<WebDriver>> evictionListeners = new CopyOnWriteArrayList<>();
+    private static volatile Semaphore checkouts;
+
+    private static Semaphore checkouts() {
+        if (checkouts == null) {
+            synchronized (DriverPool.class) {
+                if (checkouts == null) {
+                    checkouts = new Semaphore(TestConfig.getDriverPoolSize(), true);
+                }
+            }
+        }
+        return checkouts;
+    }
+
+    public static void warmUp() {
+        int missing = TestConfig.getDriverPoolSize() - sessions.size();
+        List<CompletableFuture<WebDriver>> launches = new ArrayList<>();
+        for (int i = 0; i < missing; i++) {
+            launches.add(CompletableFuture.supplyAsync(DriverPool::openSession));
+        }
+        // Every launch is awaited, so one failure cannot leave the other browsers running outside the pool
+        List<WebDriver> launched = new ArrayList<>();
+        RuntimeException failure = null;
+        for (CompletableFuture<WebDriver> launch : launches) {
+            try {
+                launched.add(launch.join());
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause() : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            launched.forEach(DriverPool::evict);
+            throw failure;
+        }
+        launched.forEach(idle::offer);
+    }
+
+    public static WebDriver borrow() {
+        try {
+            if (!checkouts().tryAcquire(TestConfig.getDriverPoolTimeout(), TimeUnit.SECONDS)) {
+                throw new IllegalStateException("No pooled driver became available within "
+                        + TestConfig.getDriverPoolTimeout() + "s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled driver", e);
+        }
+
+        try {
+            WebDriver driver;
+            while ((driver = idle.pollFirst()) != null) {
+                if (isHealthy(driver)) {
+                    return driver;
+                }
+                evict(driver);
+            }
+            return openSession();
+        } catch (RuntimeException e) {
+            checkouts().release();
+            throw e;
+        }
+    }
+
+    public static void release(WebDriver driver) {
+        try {
+            if (driver != null && sessions.contains(driver)) {
+                if (resetState(driver)) {
+                    idle.offerFirst(driver);
+                } else {
+                    evict(driver);
+                }
+            }
+        } finally {
+            checkouts().release();
+        }
+    }
+
+    // Records the scope a test is about to use this session's page for and returns the previous one,
+    // or null when the page was freshly loaded and needs neither a reset nor a reload
+    public static String swapPageScope(WebDriver driver, String scope) {
+        return pageScopes.put(driver, scope);
+    }
+
+    public static void onEvict(Consumer<WebDriver> listener) {
+        evictionListeners.add(listener);
+    }
+
+    public static void evict(WebDriver driver) {
+        sessions.remove(driver);
+        pageScopes.remove(driver);
+        evictionListeners.forEach(listener -> listener.accept(driver));
+        try {
+            driver.quit();
+        } catch (Exception ignored) {
+            // Session is already gone
+        }
+    }
+
+    public static void shutdown() {
+        WebDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            evict(driver);
+        }
+        for (WebDriver leaked : new ArrayList<>(sessions)) {
+            evict(leaked);
+        }
+    }
+
+    private static WebDriver openSession() {
+        WebDriver driver = DriverFactory.createDriverAt(TestConfig.getAppUrl());
+        sessions.add(driver);
+        return driver;
+    }
+
+    private static boolean isHealthy(WebDriver driver) {
+        try {
+            Object readyState = ((JavascriptExecutor) driver).executeScript("return document.readyState");
+            return readyState != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean resetState(WebDriver driver) {
+        try {
+            try {
+                driver.switchTo().alert().dismiss();
+            } catch (NoAlertPresentException ignored) {
+                // No browser dialog open
+            }
+
+            // Drop any tabs or popups a test opened, keeping the first window
+            String primary = null;
+            for (String handle : driver.getWindowHandles()) {
+                if (primary == null) {
+                    primary = handle;
+                } else {
+                    driver.switchTo().window(handle).close();
+                }
+            }
+            driver.switchTo().window(primary);
+
+            // Outside per-test navigation the page is kept and the next test resets it in place
+            if (TestConfig.isNavigationPerTest()) {
+                driver.manage().deleteAllCookies();
+                ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+
+                // Renavigating also tears down any open in-app modal
+                driver.get(TestConfig.getAppUrl());
+                pageScopes.remove(driver);
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.transactioninsights.driver;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Throttles new Grid sessions to the slots the Grid reports free on /status. Session requests wait here,
+// where the wait is measured, instead of piling up in the Grid's new-session queue until they time out.
+public class GridCapacity {
+
+    private static final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    // Session requests sent to the Grid that it has not answered yet; /status does not show them
+    private static int inFlight;
+    // Bumped by every release(), so a launcher can tell whether its /status read predates one
+    private static long releases;
+
+    private GridCapacity() {
+    }
+
+    // Blocks until a slot for browserName is free and reserves it; returns the time spent waiting,
+    // including any wait for other launchers. /status is polled outside the lock, so launchers poll in
+    // parallel and release() is never held up behind an HTTP call. A poll that a release() overtook is
+    // discarded: the released session may already hold one of the slots it counted free.
+    public static long acquire(String browserName) {
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(TestConfig.getGridQueueTimeout()).toNanos();
+        while (true) {
+            long seen;
+            synchronized (GridCapacity.class) {
+                seen = releases;
+            }
+            int free = freeSlots(browserName);
+            synchronized (GridCapacity.class) {
+                if (releases != seen) {
+                    continue;
+                }
+                if (free - inFlight > 0) {
+                    inFlight++;
+                    return System.nanoTime() - start;
+                }
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0) {
+                    throw new IllegalStateException("No free " + browserName + " slot on the Grid at "
+                            + TestConfig.getGridUrl() + " within " + TestConfig.getGridQueueTimeout() + "s");
+                }
+                try {
+                    // release() wakes waiters early when one of our own sessions resolves
+                    GridCapacity.class.wait(Math.min(remainingMillis, TestConfig.getGridPollMillis()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a Grid slot", e);
+                }
+            }
+        }
+    }
+
+    // Called once the Grid answered the session request, successfully or not
+    public static synchronized void release() {
+        inFlight--;
+        releases++;
+        GridCapacity.class.notifyAll();
+    }
+
+    // Idle slots of nodes that are UP and whose stereotype matches the browser
+    @SuppressWarnings("unchecked")
+    public static int freeSlots(String browserName) {
+        Map<String, Object> status = status();
+        Map<String, Object> value = (Map<String, Object>) status.getOrDefault("value", Collections.emptyMap());
+        int free = 0;
+        for (Object rawNode : (List<Object>) value.getOrDefault("nodes", Collections.emptyList())) {
+            Map<String, Object> node = (Map<String, Object>) rawNode;
+            if (!"UP".equals(node.get("availability"))) {
+                continue;
+            }
+            for (Object rawSlot : (List<Object>) node.getOrDefault("slots", Collections.emptyList())) {
+                Map<String, Object> slot = (Map<String, Object>) rawSlot;
+                Map<String, Object> stereotype =
+                        (Map<String, Object>) slot.getOrDefault("stereotype", Collections.emptyMap());
+                if (slot.get("session") == null && browserName.equalsIgnoreCase(
+                        String.valueOf(stereotype.get("browserName")))) {
+                    free++;
+                }
+            }
+        }
+        return free;
+    }
+
+    private static Map<String, Object> status() {
+        URI uri = URI.create(TestConfig.getGridUrl().replaceAll("/+$", "") + "/status");
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Grid status " + uri + " returned HTTP " + response.statusCode());
+            }
+            return new Json().toType(response.body(), Json.MAP_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Grid status " + uri + " is unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading Grid status", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.transactioninsights.driver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Browser start-up, first-navigation and Grid queue-wait latency per launch profile, for the report
+// and --measure-launch
+public class LaunchMetrics {
+
+    private static final Map<String, List<Long>> startups = new TreeMap<>();
+    private static final Map<String, List<Long>> navigations = new TreeMap<>();
+    private static final Map<String, List<Long>> queueWaits = new TreeMap<>();
+
+    private LaunchMetrics() {
+    }
+
+    static synchronized void recordStartup(String profile, long nanos) {
+        startups.computeIfAbsent(profile, key -> new ArrayList<>()).add(nanos / 1_000_000);
+    }
+
+    static synchronized void recordFirstNavigation(String profile, long nanos) {
+        navigations.computeIfAbsent(profile, key -> new ArrayList<>()).add(nanos / 1_000_000);
+    }
+
+    // Time a Grid session request waited for a free slot before it was sent
+    static synchronized void recordQueueWait(String profile, long nanos) {
+        queueWaits.computeIfAbsent(profile, key -> new ArrayList<>()).add(nanos / 1_000_000);
+    }
+
+    public static synchronized Map<String, String> summaries() {
+        Map<String, String> summaries = new TreeMap<>();
+        startups.keySet().forEach(profile -> summaries.put(profile, summary(profile)));
+        return summaries;
+    }
+
+    // e.g. "4 launches, start-up p50 812 ms / max 1020 ms, first navigation p50 640 ms / max 700 ms"
+    public static synchronized String summary(String profile) {
+        List<Long> startup = startups.getOrDefault(profile, Collections.emptyList());
+        List<Long> navigation = navigations.getOrDefault(profile, Collections.emptyList());
+        String text = String.format(Locale.ROOT, "%d launch%s, start-up p50 %d ms / max %d ms", startup.size(),
+                startup.size() == 1 ? "" : "es", percentile(startup, 50), percentile(startup, 100));
+        List<Long> queueWait = queueWaits.getOrDefault(profile, Collections.emptyList());
+        if (!queueWait.isEmpty()) {
+            text += String.format(Locale.ROOT, ", Grid queue wait p50 %d ms / max %d ms / total %d ms",
+                    percentile(queueWait, 50), percentile(queueWait, 100),
+                    queueWait.stream().mapToLong(Long::longValue).sum());
+        }
+        if (!navigation.isEmpty()) {
+            text += String.format(Locale.ROOT, ", first navigation p50 %d ms / max %d ms",
+                    percentile(navigation, 50), percentile(navigation, 100));
+        }
+        return text;
+    }
+
+    public static synchronized void reset() {
+        startups.clear();
+        navigations.clear();
+        queueWaits.clear();
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(List<Long> values, int percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
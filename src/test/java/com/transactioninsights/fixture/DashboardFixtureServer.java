@@ -0,0 +1,207 @@
+package com.transactioninsights.fixture;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.transactioninsights.config.TestConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-process replica of the Transaction Insights dashboard: the page markup DashboardPage expects,
+// backed by a generated dataset and an API with configurable injected latency.
+public class DashboardFixtureServer {
+
+    public static final String RENDER_ALL = "all";
+    public static final String RENDER_PAGED = "paged";
+    public static final String RENDER_VIRTUAL = "virtual";
+
+    private static DashboardFixtureServer shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final TransactionDataset dataset;
+    private final int latencyMillis;
+    private final byte[] page;
+
+    private DashboardFixtureServer(int port, TransactionDataset dataset, int latencyMillis, int refreshMillis,
+            String render, int pageSize) throws IOException {
+        this.dataset = dataset;
+        this.latencyMillis = latencyMillis;
+        this.page = loadPage(refreshMillis, render, pageSize);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-fixture");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/transactions", this::handleTransactions);
+        server.createContext("/", this::handlePage);
+        server.start();
+    }
+
+    public static DashboardFixtureServer start(int port, TransactionDataset dataset, int latencyMillis,
+            int refreshMillis) {
+        return start(port, dataset, latencyMillis, refreshMillis, RENDER_ALL, 100);
+    }
+
+    // render: all (every row in the DOM), paged (server-side pages behind a pager) or virtual
+    // (all rows loaded, a window of pageSize rows rendered in a scroll container)
+    public static DashboardFixtureServer start(int port, TransactionDataset dataset, int latencyMillis,
+            int refreshMillis, String render, int pageSize) {
+        if (!List.of(RENDER_ALL, RENDER_PAGED, RENDER_VIRTUAL).contains(render) || pageSize < 1) {
+            throw new IllegalArgumentException("Unsupported fixture rendering: " + render + " / page size " + pageSize);
+        }
+        try {
+            return new DashboardFixtureServer(port, dataset, latencyMillis, refreshMillis, render, pageSize);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start dashboard fixture server on port " + port, e);
+        }
+    }
+
+    // Starts the suite-wide fixture when fixture.enabled is set and points app.url (baseUrl) at it
+    public static synchronized void startIfEnabled() {
+        if (!TestConfig.isFixtureEnabled() || shared != null) {
+            return;
+        }
+        TransactionDataset dataset = new TransactionDataset(TestConfig.getFixtureRows(), TestConfig.getFixtureSeed());
+        shared = start(TestConfig.getFixturePort(), dataset, TestConfig.getFixtureLatencyMillis(),
+                TestConfig.getFixtureRefreshMillis(), TestConfig.getFixtureRender(), TestConfig.getFixturePageSize());
+        System.setProperty("baseUrl", shared.getUrl());
+    }
+
+    public static synchronized void stopShared() {
+        if (shared != null) {
+            shared.stop();
+            shared = null;
+        }
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    public TransactionDataset getDataset() {
+        return dataset;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handlePage(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!"/".equals(path) && !"/index.html".equals(path)) {
+            send(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        send(exchange, 200, "text/html; charset=utf-8", page);
+    }
+
+    private void handleTransactions(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String[] filters = new String[TransactionDataset.COLUMNS.length];
+        for (int c = 0; c < filters.length; c++) {
+            filters[c] = params.get("f" + c);
+        }
+        int sortColumn = Integer.parseInt(params.getOrDefault("sort", "-1"));
+        boolean descending = "desc".equals(params.get("dir"));
+        int[] rows = dataset.query(params.get("q"), filters, sortColumn, descending);
+        // Paged clients ask for one slice; total still reports every matching row
+        int from = Math.min(rows.length, Math.max(0, Integer.parseInt(params.getOrDefault("offset", "0"))));
+        int limit = Integer.parseInt(params.getOrDefault("limit", "-1"));
+        int to = limit < 0 ? rows.length : (int) Math.min(rows.length, (long) from + limit);
+
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        send(exchange, 200, "application/json", toJson(rows, from, to).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // {"total": n, "rows": [[name, date, total, successful, pending, errored, status], ...]}
+    private String toJson(int[] rows, int from, int to) {
+        StringBuilder json = new StringBuilder(64 + (to - from) * 80);
+        json.append("{\"total\":").append(rows.length).append(",\"rows\":[");
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                json.append(',');
+            }
+            json.append('[');
+            for (int c = 0; c < TransactionDataset.COLUMNS.length; c++) {
+                if (c > 0) {
+                    json.append(',');
+                }
+                appendString(json, dataset.cell(rows[i], c));
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                json.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                json.append(String.format("\\u%04x", (int) ch));
+            } else {
+                json.append(ch);
+            }
+        }
+        json.append('"');
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] loadPage(int refreshMillis, String render, int pageSize) throws IOException {
+        try (InputStream in = DashboardFixtureServer.class.getClassLoader()
+                .getResourceAsStream("fixture/dashboard.html")) {
+            if (in == null) {
+                throw new IOException("fixture/dashboard.html not found on the classpath");
+            }
+            String html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return html.replace("__REFRESH_MS__", String.valueOf(refreshMillis))
+                    .replace("__RENDER__", render)
+                    .replace("__PAGE_SIZE__", String.valueOf(pageSize))
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
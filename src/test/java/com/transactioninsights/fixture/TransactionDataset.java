@@ -0,0 +1,146 @@
+package com.transactioninsights.fixture;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Deterministic, column-oriented set of transaction batches served by the fixture dashboard.
+// Total always equals Successful + Pending + Errored.
+public class TransactionDataset {
+
+    public static final String[] COLUMNS = { "Name", "Date", "Total", "Successful", "Pending", "Errored", "Status" };
+    public static final String[] STATUSES = { "Completed", "Processing", "Failed" };
+
+    private static final String[] FIRST_NAMES = { "Arjun", "Priya", "Rahul", "Ananya", "Vikram", "Meera", "Karthik",
+            "Divya", "Rohan", "Sneha", "Aditya", "Kavya", "Naveen", "Isha", "Suresh", "Lakshmi" };
+    private static final String[] LAST_NAMES = { "Sharma", "Iyer", "Reddy", "Nair", "Patel", "Gupta", "Menon",
+            "Rao", "Kumar", "Singh" };
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    private static final int DATE_SPAN_DAYS = 730;
+
+    private final String[] names;
+    private final long[] dates;
+    private final int[] successful;
+    private final int[] pending;
+    private final int[] errored;
+    private final byte[] statuses;
+
+    public TransactionDataset(int rows, long seed) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Row count must not be negative: " + rows);
+        }
+        Random random = new Random(seed);
+        names = new String[rows];
+        dates = new long[rows];
+        successful = new int[rows];
+        pending = new int[rows];
+        errored = new int[rows];
+        statuses = new byte[rows];
+        for (int i = 0; i < rows; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            dates[i] = FIRST_DATE.toEpochDay() + random.nextInt(DATE_SPAN_DAYS);
+            successful[i] = 1 + random.nextInt(500);
+            pending[i] = random.nextInt(4) == 0 ? random.nextInt(50) : 0;
+            errored[i] = 1 + random.nextInt(40);
+            if (pending[i] > 0) {
+                statuses[i] = 1;
+            } else if (errored[i] * 10 > successful[i]) {
+                statuses[i] = 2;
+            } else {
+                statuses[i] = 0;
+            }
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String cell(int row, int column) {
+        switch (column) {
+            case 0:
+                return names[row];
+            case 1:
+                return LocalDate.ofEpochDay(dates[row]).toString();
+            case 2:
+                return String.valueOf(successful[row] + pending[row] + errored[row]);
+            case 3:
+                return String.valueOf(successful[row]);
+            case 4:
+                return String.valueOf(pending[row]);
+            case 5:
+                return String.valueOf(errored[row]);
+            case 6:
+                return STATUSES[statuses[row]];
+            default:
+                throw new IllegalArgumentException("Unknown column: " + column);
+        }
+    }
+
+    // Row indexes matching the search (any column) and per-column filters, in the requested order.
+    // Matching is a case-insensitive substring test, like the dashboard's own inputs.
+    public int[] query(String search, String[] filters, int sortColumn, boolean descending) {
+        String needle = normalize(search);
+        String[] columnNeedles = new String[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length && filters != null && c < filters.length; c++) {
+            columnNeedles[c] = normalize(filters[c]);
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        for (int row = 0; row < size(); row++) {
+            if (matches(row, needle, columnNeedles)) {
+                matches.add(row);
+            }
+        }
+        if (sortColumn >= 0 && sortColumn < COLUMNS.length) {
+            Comparator<Integer> order = comparator(sortColumn);
+            matches.sort(descending ? order.reversed() : order);
+        }
+        return matches.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private boolean matches(int row, String needle, String[] columnNeedles) {
+        if (needle != null) {
+            boolean found = false;
+            for (int c = 0; c < COLUMNS.length && !found; c++) {
+                found = cell(row, c).toLowerCase(Locale.ROOT).contains(needle);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        for (int c = 0; c < columnNeedles.length; c++) {
+            if (columnNeedles[c] != null && !cell(row, c).toLowerCase(Locale.ROOT).contains(columnNeedles[c])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Comparator<Integer> comparator(int column) {
+        switch (column) {
+            case 0:
+                return Comparator.comparing(row -> names[row]);
+            case 1:
+                return Comparator.comparingLong(row -> dates[row]);
+            case 2:
+                return Comparator.comparingInt(row -> successful[row] + pending[row] + errored[row]);
+            case 3:
+                return Comparator.comparingInt(row -> successful[row]);
+            case 4:
+                return Comparator.comparingInt(row -> pending[row]);
+            case 5:
+                return Comparator.comparingInt(row -> errored[row]);
+            default:
+                return Comparator.comparing(row -> STATUSES[statuses[row]]);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,302 @@
+package com.transactioninsights.pages;
+
+import com.transactioninsights.config.TestConfig;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Checks that every row of the transaction table reconciles: Total = Successful + Pending + Errored,
+// counts are non-negative whole numbers, dates parse with consistency.date.pattern and are not in the
+// future, and statuses are one of consistency.statuses. A snapshot is decoded once into primitive
+// columns, rows are checked independently (in parallel from consistency.parallel.threshold rows on),
+// and every violation is reported rather than just the first.
+public final class ConsistencyOracle {
+
+    public static final String TOTAL = "Total";
+    public static final String SUCCESSFUL = "Successful";
+    public static final String PENDING = "Pending";
+    public static final String ERRORED = "Errored";
+
+    public static final String NOT_A_NUMBER = "Not a number";
+    public static final String NEGATIVE = "Negative count";
+    public static final String TOTAL_MISMATCH = "Total mismatch";
+    public static final String INVALID_DATE = "Invalid date";
+    public static final String FUTURE_DATE = "Future date";
+    public static final String UNKNOWN_STATUS = "Unknown status";
+
+    // Sentinels for cells that did not parse
+    static final long NOT_PARSED = Long.MIN_VALUE;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+
+    private ConsistencyOracle() {
+    }
+
+    public static Report verify(TableSnapshot table) {
+        List<String> missing = table.missingColumns(TOTAL, SUCCESSFUL, PENDING, ERRORED);
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Cannot verify consistency without column(s) " + missing
+                    + "; table headers are " + table.getHeaders());
+        }
+        long start = System.nanoTime();
+        boolean parallel = table.getRowCount() >= TestConfig.getConsistencyParallelThreshold();
+        Columns columns = new Columns(table, parallel);
+        List<Violation> violations = rows(columns.rows, parallel)
+                .mapToObj(columns::check)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        return new Report(columns.rows, violations, parallel, System.nanoTime() - start);
+    }
+
+    private static IntStream rows(int count, boolean parallel) {
+        IntStream rows = IntStream.range(0, count);
+        return parallel ? rows.parallel() : rows;
+    }
+
+    // Whole numbers with optional thousands separators; NOT_PARSED for anything else
+    static long parseCount(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                if (++digits > 18) {
+                    return NOT_PARSED;
+                }
+                value = value * 10 + (ch - '0');
+            } else if (ch != ',' || digits == 0) {
+                return NOT_PARSED;
+            }
+        }
+        if (digits == 0) {
+            return NOT_PARSED;
+        }
+        return negative ? -value : value;
+    }
+
+    // The table decoded into one primitive array per checked column
+    private static final class Columns {
+        final int rows;
+        final String[] names;
+        final String[] countNames = { TOTAL, SUCCESSFUL, PENDING, ERRORED };
+        final String[][] rawCounts = new String[4][];
+        final long[][] counts = new long[4][];
+        final int[] dates;
+        final String[] rawDates;
+        final byte[] statuses;
+        final String[] rawStatuses;
+        final int today = (int) LocalDate.now().toEpochDay();
+
+        Columns(TableSnapshot table, boolean parallel) {
+            rows = table.getRowCount();
+            int nameColumn = table.indexOf("Name");
+            int dateColumn = table.indexOf("Date");
+            int statusColumn = table.indexOf("Status");
+            names = nameColumn < 0 ? null : column(table, nameColumn);
+            for (int c = 0; c < counts.length; c++) {
+                String[] raw = column(table, table.indexOf(countNames[c]));
+                long[] values = new long[rows];
+                rows(rows, parallel).forEach(r -> values[r] = parseCount(raw[r].trim()));
+                rawCounts[c] = raw;
+                counts[c] = values;
+            }
+
+            if (dateColumn < 0) {
+                dates = null;
+                rawDates = null;
+            } else {
+                DateTimeFormatter format = DateTimeFormatter.ofPattern(TestConfig.getConsistencyDatePattern(),
+                        Locale.ROOT);
+                rawDates = column(table, dateColumn);
+                dates = new int[rows];
+                rows(rows, parallel).forEach(r -> dates[r] = parseDate(rawDates[r], format));
+            }
+
+            List<String> allowed = TestConfig.getConsistencyStatuses();
+            if (statusColumn < 0 || allowed.isEmpty()) {
+                statuses = null;
+                rawStatuses = null;
+            } else {
+                rawStatuses = column(table, statusColumn);
+                statuses = new byte[rows];
+                rows(rows, parallel).forEach(r -> {
+                    int index = allowed.indexOf(rawStatuses[r].trim());
+                    statuses[r] = index < 0 ? NO_STATUS : (byte) index;
+                });
+            }
+        }
+
+        private static String[] column(TableSnapshot table, int index) {
+            return table.getColumn(index).toArray(new String[0]);
+        }
+
+        private static int parseDate(String text, DateTimeFormatter format) {
+            try {
+                return (int) LocalDate.parse(text.trim(), format).toEpochDay();
+            } catch (DateTimeParseException e) {
+                return NO_DATE;
+            }
+        }
+
+        // null when the row is consistent, so clean rows allocate nothing
+        List<Violation> check(int row) {
+            List<Violation> found = null;
+            boolean allCounts = true;
+            for (int c = 0; c < counts.length; c++) {
+                long value = counts[c][row];
+                if (value == NOT_PARSED) {
+                    allCounts = false;
+                    found = add(found, row, NOT_A_NUMBER, countNames[c] + " is '" + rawCounts[c][row] + "'");
+                } else if (value < 0) {
+                    found = add(found, row, NEGATIVE, countNames[c] + " is " + value);
+                }
+            }
+            if (allCounts) {
+                long total = counts[0][row];
+                long sum = counts[1][row] + counts[2][row] + counts[3][row];
+                if (total != sum) {
+                    found = add(found, row, TOTAL_MISMATCH, String.format("Total %d != Successful %d + Pending %d"
+                            + " + Errored %d (%d)", total, counts[1][row], counts[2][row], counts[3][row], sum));
+                }
+            }
+            if (dates != null) {
+                if (dates[row] == NO_DATE) {
+                    found = add(found, row, INVALID_DATE, "'" + rawDates[row] + "' does not match "
+                            + TestConfig.getConsistencyDatePattern());
+                } else if (dates[row] > today) {
+                    found = add(found, row, FUTURE_DATE, rawDates[row].trim() + " is after today");
+                }
+            }
+            if (statuses != null && statuses[row] == NO_STATUS) {
+                found = add(found, row, UNKNOWN_STATUS, "'" + rawStatuses[row] + "' is not one of "
+                        + TestConfig.getConsistencyStatuses());
+            }
+            return found;
+        }
+
+        private List<Violation> add(List<Violation> found, int row, String rule, String detail) {
+            List<Violation> list = found == null ? new ArrayList<>(2) : found;
+            list.add(new Violation(row, names == null ? "" : names[row], rule, detail));
+            return list;
+        }
+    }
+
+    public static final class Violation {
+        private final int row;
+        private final String name;
+        private final String rule;
+        private final String detail;
+
+        Violation(int row, String name, String rule, String detail) {
+            this.row = row;
+            this.name = name;
+            this.rule = rule;
+            this.detail = detail;
+        }
+
+        // 0-based index into the captured rows
+        public int getRow() {
+            return row;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + (row + 1) + (name.isEmpty() ? "" : " (" + name + ")") + ": " + rule + ": " + detail;
+        }
+    }
+
+    public static final class Report {
+        private final int rowCount;
+        private final List<Violation> violations;
+        private final boolean parallel;
+        private final long nanos;
+
+        Report(int rowCount, List<Violation> violations, boolean parallel, long nanos) {
+            this.rowCount = rowCount;
+            this.violations = Collections.unmodifiableList(violations);
+            this.parallel = parallel;
+            this.nanos = nanos;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public boolean isConsistent() {
+            return violations.isEmpty();
+        }
+
+        // Every violation, ordered by row
+        public List<Violation> getViolations() {
+            return violations;
+        }
+
+        public long getViolatingRowCount() {
+            return violations.stream().mapToInt(Violation::getRow).distinct().count();
+        }
+
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        public String summary() {
+            String checked = String.format(Locale.ROOT, "Checked %d rows in %d ms%s", rowCount, getMillis(),
+                    parallel ? " (parallel)" : "");
+            return isConsistent() ? checked + ": all rows consistent"
+                    : checked + ": " + violations.size() + " violation(s) in " + getViolatingRowCount() + " row(s)";
+        }
+
+        // Summary plus one line per violation, the first limit of them
+        public String describe(int limit) {
+            StringBuilder text = new StringBuilder(summary());
+            violations.stream().limit(limit).forEach(v -> text.append('\n').append(v));
+            if (violations.size() > limit) {
+                text.append("\n... and ").append(violations.size() - limit).append(" more");
+            }
+            return text.toString();
+        }
+
+        // Header row plus the first limit violations, for MarkupHelper.createTable
+        public String[][] toTable(int limit) {
+            int size = Math.min(limit, violations.size());
+            String[][] table = new String[size + 1][];
+            table[0] = new String[] { "Row", "Name", "Rule", "Detail" };
+            for (int i = 0; i < size; i++) {
+                Violation v = violations.get(i);
+                table[i + 1] = new String[] { String.valueOf(v.row + 1), v.name, v.rule, v.detail };
+            }
+            return table;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.transactioninsights.pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Browser-free checks of the reconciliation rules; snapshots are built the way the capture script returns them
+public class ConsistencyOracleTest {
+
+    private static final String[] HEADERS = { "Name", "Date", "Total", "Successful", "Pending", "Errored", "Status" };
+
+    @Test
+    public void parsesWholeNumbersWithThousandsSeparators() {
+        Assert.assertEquals(ConsistencyOracle.parseCount("0"), 0);
+        Assert.assertEquals(ConsistencyOracle.parseCount("1,234,567"), 1_234_567);
+        Assert.assertEquals(ConsistencyOracle.parseCount("-12"), -12);
+        Assert.assertEquals(ConsistencyOracle.parseCount("999999999999999999"), 999_999_999_999_999_999L);
+    }
+
+    @Test
+    public void rejectsAnythingElseAsACount() {
+        for (String text : new String[] { "", "-", ",1", "1.5", "12a", " 1", "1 000", "1234567890123456789" }) {
+            Assert.assertEquals(ConsistencyOracle.parseCount(text), ConsistencyOracle.NOT_PARSED, "'" + text + "'");
+        }
+    }
+
+    @Test
+    public void acceptsAConsistentTable() {
+        ConsistencyOracle.Report report = ConsistencyOracle.verify(table(
+                row("Asha Sharma", "2024-01-15", "10", "7", "2", "1", "Completed"),
+                row("Ravi Kumar", "2024-02-01", "1,000", "998", "0", "2", "Failed")));
+
+        Assert.assertTrue(report.isConsistent(), report.describe(10));
+        Assert.assertEquals(report.getRowCount(), 2);
+        Assert.assertEquals(report.getViolatingRowCount(), 0);
+    }
+
+    @Test
+    public void reportsEveryViolationOfEveryRow() {
+        String tomorrow = LocalDate.now().plusDays(1).toString();
+        ConsistencyOracle.Report report = ConsistencyOracle.verify(table(
+                row("Clean", "2024-01-15", "3", "1", "1", "1", "Completed"),
+                row("Mismatch", "2024-01-15", "10", "7", "2", "2", "Completed"),
+                row("Garbled", "15/01/2024", "ten", "-1", "0", "0", "Done"),
+                row("Early", tomorrow, "0", "0", "0", "0", "Processing")));
+
+        Assert.assertFalse(report.isConsistent());
+        Assert.assertEquals(rules(report), Arrays.asList(
+                "1:" + ConsistencyOracle.TOTAL_MISMATCH,
+                "2:" + ConsistencyOracle.NOT_A_NUMBER,
+                "2:" + ConsistencyOracle.NEGATIVE,
+                "2:" + ConsistencyOracle.INVALID_DATE,
+                "2:" + ConsistencyOracle.UNKNOWN_STATUS,
+                "3:" + ConsistencyOracle.FUTURE_DATE));
+        Assert.assertEquals(report.getViolatingRowCount(), 3);
+
+        ConsistencyOracle.Violation mismatch = report.getViolations().get(0);
+        Assert.assertEquals(mismatch.getName(), "Mismatch");
+        Assert.assertEquals(mismatch.getDetail(), "Total 10 != Successful 7 + Pending 2 + Errored 2 (11)");
+        // The raw cell is reported, not the parse sentinel
+        Assert.assertEquals(report.getViolations().get(1).getDetail(), "Total is 'ten'");
+    }
+
+    @Test
+    public void skipsDateAndStatusRulesWithoutThoseColumns() {
+        ConsistencyOracle.Report report = ConsistencyOracle.verify(snapshot(
+                new String[] { "Total", "Successful", "Pending", "Errored" },
+                new String[] { "4", "1", "1", "1" }));
+
+        Assert.assertEquals(rules(report), List.of("0:" + ConsistencyOracle.TOTAL_MISMATCH));
+        Assert.assertEquals(report.getViolations().get(0).getName(), "");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void refusesATableWithoutTheCountColumns() {
+        ConsistencyOracle.verify(snapshot(new String[] { "Name", "Total" }, new String[] { "A", "1" }));
+    }
+
+    @Test
+    public void parallelCheckFindsTheSameViolations() {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String total = i % 97 == 0 ? String.valueOf(i + 1) : String.valueOf(i);
+            rows.add(row("Row " + i, "2024-03-01", total, String.valueOf(i), "0", "0", "Completed"));
+        }
+        TableSnapshot table = table(rows.toArray(new String[0][]));
+
+        ConsistencyOracle.Report sequential = ConsistencyOracle.verify(table);
+        ConsistencyOracle.Report parallel;
+        System.setProperty("consistency.parallel.threshold", "1");
+        try {
+            parallel = ConsistencyOracle.verify(table);
+        } finally {
+            System.clearProperty("consistency.parallel.threshold");
+        }
+
+        Assert.assertFalse(sequential.isParallel());
+        Assert.assertTrue(parallel.isParallel());
+        Assert.assertEquals(sequential.getViolations().size(), 52);
+        Assert.assertEquals(rules(parallel), rules(sequential));
+    }
+
+    @Test
+    public void limitsTheDescriptionAndTable() {
+        ConsistencyOracle.Report report = ConsistencyOracle.verify(table(
+                row("A", "2024-01-15", "2", "1", "0", "0", "Completed"),
+                row("B", "2024-01-15", "2", "1", "0", "0", "Completed"),
+                row("C", "2024-01-15", "2", "1", "0", "0", "Completed")));
+
+        String[] lines = report.describe(2).split("\n");
+        Assert.assertEquals(lines.length, 4);
+        Assert.assertEquals(lines[3], "... and 1 more");
+        String[][] table = report.toTable(2);
+        Assert.assertEquals(table.length, 3);
+        Assert.assertEquals(table[1][0], "1");
+        Assert.assertEquals(table[2][1], "B");
+    }
+
+    private static List<String> rules(ConsistencyOracle.Report report) {
+        return report.getViolations().stream()
+                .map(violation -> violation.getRow() + ":" + violation.getRule())
+                .collect(Collectors.toList());
+    }
+
+    private static String[] row(String... cells) {
+        return cells;
+    }
+
+    private static TableSnapshot table(String[]... rows) {
+        return snapshot(HEADERS, rows);
+    }
+
+    // Same shape as TableSnapshot's capture script result: headers plus one list per column
+    static TableSnapshot snapshot(String[] headers, String[]... rows) {
+        List<List<Object>> columns = new ArrayList<>();
+        List<Object> buttons = new ArrayList<>();
+        for (int c = 0; c < headers.length; c++) {
+            List<Object> column = new ArrayList<>();
+            for (String[] row : rows) {
+                column.add(row[c]);
+            }
+            columns.add(column);
+            buttons.add("0".repeat(rows.length));
+        }
+        return TableSnapshot.fromScriptResult(Map.of("headers", Arrays.asList((Object[]) headers),
+                "columns", columns, "buttons", buttons, "headerVersion", String.join("|", headers)));
+    }
+}
@@ -1,25 +1,38 @@
 package com.transactioninsights.pages;
 
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
 import com.transactioninsights.config.TestConfig;
 import com.transactioninsights.exceptions.ElementNotFoundException;
+import com.transactioninsights.utils.DomAction;
+import com.transactioninsights.utils.DomWait;
+import com.transactioninsights.utils.ExtentReportManager;
+import com.transactioninsights.utils.NetworkMonitor;
+import com.transactioninsights.utils.RefreshProbe;
+import com.transactioninsights.utils.ReportNode;
+import com.transactioninsights.utils.StepRetry;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.openqa.selenium.interactions.Actions;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 public class DashboardPage {
 
     private WebDriver driver;
-    private WebDriverWait wait;
-    private ExtentTest test;
+    private DomWait wait;
+    private DomAction actions;
+    private ReportNode test;
+    private NetworkMonitor network;
 
     // Locators
     private By dashboardTitle = By
@@ -28,33 +41,46 @@ public class DashboardPage {
     private By tableRows = By.cssSelector("tbody tr");
     private By tableElement = By.cssSelector("table");
     private By tableHeaders = By.cssSelector("thead th");
-    private By successfulLinks = By.xpath("//tbody/tr/td[4]//button[1]");
-    private By erroredLinks = By.xpath("//tbody/tr/td[6]//button[1]");
     private By modalDialog = By.cssSelector("[role='dialog'], .modal");
     private By autoRefreshToggle = By.cssSelector("button[role='switch']");
     private By columnFilters = By.cssSelector("thead input");
+    private By modalCloseButton = By.xpath("//button[contains(text(), 'Close')]");
+
+    private static final String SUCCESSFUL_COLUMN = "Successful";
+    private static final String ERRORED_COLUMN = "Errored";
+    private static final int MAX_LOGGED_VIOLATIONS = 50;
+
+    // Header names resolved to column indexes, reused until the header row changes
+    private TableSnapshot headerSnapshot;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
 
     public DashboardPage(WebDriver driver) {
         this(driver, null);
     }
 
-    public DashboardPage(WebDriver driver, ExtentTest test) {
+    public DashboardPage(WebDriver driver, ReportNode test) {
+        this(driver, test, null);
+    }
+
+    public DashboardPage(WebDriver driver, ReportNode test, NetworkMonitor network) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(TestConfig.getExplicitWait()));
+        this.wait = new DomWait(driver);
+        this.actions = new DomAction(driver);
         this.test = test;
+        this.network = network;
     }
 
     // Common logging methods
     private void logFail(String message) {
         if (test != null) {
-            test.log(Status.FAIL, "✗ " + message);
+            ExtentReportManager.log(test, Status.FAIL, "✗ " + message);
         }
     }
 
     public boolean isDashboardLoaded() {
         try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(tableElement));
-            return driver.findElements(tableElement).size() > 0;
+            wait.until(DomWait.presenceOf(tableElement));
+            return true;
         } catch (Exception e) {
             logFail("Dashboard failed to load: " + e.getMessage());
             return false;
@@ -81,7 +107,7 @@ public class DashboardPage {
 
     public List<WebElement> getTableHeaders() {
         try {
-            wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(tableHeaders));
+            wait.until(DomWait.presenceOf(tableHeaders));
             return driver.findElements(tableHeaders);
         } catch (Exception e) {
             logFail("Failed to get table headers: " + e.getMessage());
@@ -89,9 +115,77 @@ public class DashboardPage {
         }
     }
 
+    public TableSnapshot captureTable() {
+        try {
+            return track(TableSnapshot.capture(driver));
+        } catch (Exception e) {
+            logFail("Failed to capture table: " + e.getMessage());
+            throw new ElementNotFoundException("Table capture failed", e);
+        }
+    }
+
+    // One round trip when the header row is already rendered, otherwise waits for it first
+    private TableSnapshot captureTableWithHeaders() {
+        TableSnapshot snapshot = TableSnapshot.capture(driver);
+        if (snapshot.getHeaders().isEmpty()) {
+            wait.until(DomWait.presenceOf(tableHeaders));
+            snapshot = TableSnapshot.capture(driver);
+        }
+        return track(snapshot);
+    }
+
+    // Every capture carries the header version reported by the in-page MutationObserver,
+    // so the column cache is dropped as soon as any capture sees a changed header row
+    private TableSnapshot track(TableSnapshot snapshot) {
+        if (headerSnapshot == null || !headerSnapshot.getHeaderVersion().equals(snapshot.getHeaderVersion())) {
+            headerSnapshot = snapshot.getHeaders().isEmpty() ? null : snapshot;
+            columnIndexes.clear();
+        }
+        return snapshot;
+    }
+
+    // Navigation hook: call after anything that reloads or re-renders the table
+    public void invalidateColumnCache() {
+        headerSnapshot = null;
+        columnIndexes.clear();
+    }
+
+    public int getColumnIndex(String columnName) {
+        Integer index = columnIndexes.get(columnName);
+        if (index != null) {
+            return index;
+        }
+        if (headerSnapshot == null) {
+            captureTableWithHeaders();
+        }
+        index = headerSnapshot.indexOf(columnName);
+        if (index < 0) {
+            // The cached headers may predate a render the observer has not reported yet
+            invalidateColumnCache();
+            index = captureTableWithHeaders().indexOf(columnName);
+        }
+        if (index < 0) {
+            throw new ElementNotFoundException("Column header not found: " + columnName);
+        }
+        columnIndexes.put(columnName, index);
+        return index;
+    }
+
+    public By headerLocator(String columnName) {
+        return By.xpath("(//thead//th)[" + (getColumnIndex(columnName) + 1) + "]");
+    }
+
+    public By cellLocator(String columnName) {
+        return By.xpath("//tbody/tr/td[" + (getColumnIndex(columnName) + 1) + "]");
+    }
+
+    public By buttonLocator(String columnName) {
+        return By.xpath("//tbody/tr/td[" + (getColumnIndex(columnName) + 1) + "]//button[1]");
+    }
+
     public int getTableHeaderCount() {
         try {
-            return getTableHeaders().size();
+            return captureTableWithHeaders().getHeaders().size();
         } catch (Exception e) {
             logFail("Failed to count headers: " + e.getMessage());
             return 0;
@@ -100,19 +194,11 @@ public class DashboardPage {
 
     public boolean verifyTableColumnsExist(String... expectedColumns) {
         try {
-            Set<String> actualColumns = getTableHeaders().stream()
-                    .map(header -> header.getText().trim())
-                    .collect(Collectors.toSet());
-
-            for (String expectedColumn : expectedColumns) {
-                boolean found = actualColumns.stream()
-                        .anyMatch(col -> col.contains(expectedColumn));
-                if (!found) {
-                    logFail("Column not found: " + expectedColumn);
-                    return false;
-                }
+            List<String> missing = captureTableWithHeaders().missingColumns(expectedColumns);
+            for (String column : missing) {
+                logFail("Column not found: " + column);
             }
-            return true;
+            return missing.isEmpty();
         } catch (Exception e) {
             logFail("Error verifying columns: " + e.getMessage());
             return false;
@@ -125,18 +211,21 @@ public class DashboardPage {
 
     public DashboardPage sortColumn(String columnName, boolean descending) {
         try {
-            List<WebElement> headers = getTableHeaders();
-            for (WebElement header : headers) {
-                if (header.getText().trim().contains(columnName)) {
-                    header.click();
-                    if (descending) {
-                        header.click();
-                    }
-                    return this;
-                }
+            By headerLocator;
+            try {
+                headerLocator = headerLocator(columnName);
+            } catch (ElementNotFoundException e) {
+                logFail("Column header not found: " + columnName);
+                throw e;
             }
-            logFail("Column header not found: " + columnName);
-            throw new ElementNotFoundException("Column header not found: " + columnName);
+            // Each click is retried on its own: a second click would flip the direction back
+            clickWithRetry("Sort '" + columnName + "'", headerLocator);
+            if (descending) {
+                clickWithRetry("Sort '" + columnName + "' descending", headerLocator);
+            }
+            return this;
+        } catch (ElementNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             logFail("Failed to sort column: " + e.getMessage());
             throw new ElementNotFoundException("Failed to sort column", e);
@@ -145,12 +234,13 @@ public class DashboardPage {
 
     public DashboardPage searchTransaction(String query) {
         try {
-            WebElement searchBox = wait.until(ExpectedConditions.visibilityOfElementLocated(searchInput));
-            searchBox.clear();
-            searchBox.sendKeys(query);
-            wait.until(driver -> {
-                List<WebElement> rows = driver.findElements(tableRows);
-                return rows.isEmpty() || !rows.get(0).getText().isEmpty();
+            String action = "Search '" + query + "'";
+            StepRetry.run(test, action, () -> {
+                WebElement searchBox = wait.until(DomWait.visibilityOf(searchInput));
+                long mark = network != null ? network.mark() : 0;
+                searchBox.clear();
+                searchBox.sendKeys(query);
+                awaitTableUpdate(action, mark);
             });
             return this;
         } catch (Exception e) {
@@ -159,11 +249,47 @@ public class DashboardPage {
         }
     }
 
+    private void clickWithRetry(String action, By locator) {
+        StepRetry.run(test, action, () -> driver.findElement(locator).click());
+    }
+
+    // With a NetworkMonitor attached, waits for the table's requests to settle before checking rows
+    private void awaitTableUpdate(String action, long mark) {
+        if (network != null) {
+            Duration timeout = Duration.ofSeconds(TestConfig.getExplicitWait());
+            String responsePattern = TestConfig.getNetworkResponsePattern();
+            if (!responsePattern.isEmpty()) {
+                network.awaitResponse(Pattern.compile(responsePattern), mark, timeout);
+            }
+            network.awaitIdle(Duration.ofMillis(TestConfig.getNetworkIdleMillis()), timeout);
+            logRequests(action, network.getCompletedSince(mark));
+        }
+        wait.until(DomWait.firstMatchHasText(tableRows));
+    }
+
+    private void logRequests(String action, List<NetworkMonitor.RequestTiming> timings) {
+        if (test == null || timings.isEmpty()) {
+            return;
+        }
+        String[][] rows = new String[timings.size() + 1][];
+        rows[0] = new String[] { "Method", "URL", "Status", "Duration (ms)" };
+        for (int i = 0; i < timings.size(); i++) {
+            NetworkMonitor.RequestTiming timing = timings.get(i);
+            rows[i + 1] = new String[] { timing.getMethod(), timing.getUrl(),
+                    timing.isFailed() ? "failed" : String.valueOf(timing.getStatus()),
+                    String.valueOf(timing.getDurationMillis()) };
+        }
+        ExtentReportManager.log(test, Status.INFO, action + ": " + timings.size() + " request(s)");
+        ExtentReportManager.log(test, Status.INFO, MarkupHelper.createTable(rows));
+    }
+
     public DashboardPage clearSearch() {
         try {
-            WebElement searchBox = wait.until(ExpectedConditions.visibilityOfElementLocated(searchInput));
-            searchBox.clear();
-            wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(tableRows));
+            StepRetry.run(test, "Clear search", () -> {
+                WebElement searchBox = wait.until(DomWait.visibilityOf(searchInput));
+                searchBox.clear();
+                wait.until(DomWait.presenceOf(tableRows));
+            });
             return this;
         } catch (Exception e) {
             logFail("Failed to clear search: " + e.getMessage());
@@ -173,34 +299,107 @@ public class DashboardPage {
 
     public int getRowCount() {
         try {
-            return driver.findElements(tableRows).size();
+            return track(TableSnapshot.capture(driver)).getRowCount();
         } catch (Exception e) {
             logFail("Failed to count rows: " + e.getMessage());
             return 0;
         }
     }
 
-    public DashboardPage clickFirstSuccessfulLink() {
+    // Rows in the logical table: aria-rowcount for paged or virtualized tables, otherwise the rendered rows
+    public int getTotalRowCount() {
         try {
-            // Wait for at least one clickable successful link to be present
-            wait.until(ExpectedConditions.presenceOfElementLocated(successfulLinks));
+            Object total = ((JavascriptExecutor) driver).executeScript(
+                    "var table = document.querySelector('table');"
+                    + "if (!table) { return 0; }"
+                    + "var declared = Number(table.getAttribute('aria-rowcount'));"
+                    + "return declared > 0 ? declared : table.querySelectorAll('tbody tr').length;");
+            return ((Number) total).intValue();
+        } catch (Exception e) {
+            logFail("Failed to count total rows: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Streams every row of the table to the consumer in chunks, paging or scrolling as needed, so
+    // memory on both sides stays bounded by the chunk size (and the app's own render window)
+    public TableReader.Stats streamTable(int chunkSize, Consumer<TableReader.Chunk> consumer) {
+        try {
+            TableReader.Stats stats = TableReader.stream(driver, chunkSize, consumer);
+            if (test != null) {
+                ExtentReportManager.log(test, Status.INFO, String.format(Locale.ROOT,
+                        "Read %d of %d rows in %d chunk(s), %d ms (%.0f rows/s, at most %d rows rendered)",
+                        stats.getRowsRead(), stats.getTotal(), stats.getChunks(), stats.getMillis(),
+                        stats.getRowsPerSecond(), stats.getMaxRenderedRows()));
+            }
+            return stats;
+        } catch (Exception e) {
+            logFail("Failed to read table: " + e.getMessage());
+            throw new ElementNotFoundException("Table read failed", e);
+        }
+    }
 
-            List<WebElement> links = driver.findElements(successfulLinks);
-            if (links.isEmpty()) {
-                logFail("No successful transaction links found");
-                throw new ElementNotFoundException("No successful transaction links found");
+    // Captures the rendered rows in one round trip and checks them all; violations are logged as one table
+    public ConsistencyOracle.Report verifyConsistency() {
+        try {
+            wait.until(DomWait.firstMatchHasText(tableRows));
+        } catch (Exception e) {
+            logFail("Table rows did not render: " + e.getMessage());
+            throw new ElementNotFoundException("Table rows not found", e);
+        }
+        ConsistencyOracle.Report report = ConsistencyOracle.verify(captureTable());
+        if (test != null) {
+            ExtentReportManager.log(test, report.isConsistent() ? Status.INFO : Status.WARNING, report.summary());
+            if (!report.isConsistent()) {
+                ExtentReportManager.log(test, Status.INFO,
+                        MarkupHelper.createTable(report.toTable(MAX_LOGGED_VIOLATIONS)));
             }
+        }
+        return report;
+    }
 
-            // Find the first displayed and enabled link
-            WebElement clickableLink = links.stream()
-                    .filter(WebElement::isDisplayed)
-                    .filter(WebElement::isEnabled)
-                    .findFirst()
-                    .orElseThrow(() -> new ElementNotFoundException("No clickable successful transaction links found"));
+    // Captures the table to predict a search, filter or sort from; take it before the action
+    public TableOracle captureOracle() {
+        try {
+            wait.until(DomWait.firstMatchHasText(tableRows));
+        } catch (Exception e) {
+            logFail("Table rows did not render: " + e.getMessage());
+            throw new ElementNotFoundException("Table rows not found", e);
+        }
+        TableSnapshot snapshot = captureTable();
+        int total = getTotalRowCount();
+        if (total > snapshot.getRowCount()) {
+            throw new IllegalStateException("Table renders " + snapshot.getRowCount() + " of " + total
+                    + " rows; the table oracle needs every row in the DOM");
+        }
+        return TableOracle.of(snapshot);
+    }
+
+    // Checks the table against the expectation. The table may still be catching up with the action
+    // (debounced inputs, a pending request), so it is captured again only after its rows change.
+    public TableOracle.Result verifyTable(TableOracle.Expectation expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(TestConfig.getExplicitWait()).toNanos();
+        TableOracle.Result result = expected.check(captureTable());
+        while (!result.matches()) {
+            long remaining = deadline - System.nanoTime();
+            DomWait.Condition change = result.getActualRows() != expected.size()
+                    ? DomWait.rowCountChanges(tableRows, result.getActualRows())
+                    : DomWait.textChanges(tableRows, PageState.capture(driver).getFirstRow());
+            if (remaining <= 0 || !wait.check(change, Duration.ofNanos(remaining))) {
+                break;
+            }
+            result = expected.check(captureTable());
+        }
+        if (test != null) {
+            ExtentReportManager.log(test, result.matches() ? Status.INFO : Status.WARNING, result.summary());
+        }
+        return result;
+    }
 
-            // Wait for the element to be clickable and click it
-            wait.until(ExpectedConditions.elementToBeClickable(clickableLink));
-            clickableLink.click();
+    public DashboardPage clickFirstSuccessfulLink() {
+        try {
+            // One script picks the first visible, enabled and unobscured link, then a native click
+            StepRetry.run(test, "Open successful transactions", () -> actions.click(buttonLocator(SUCCESSFUL_COLUMN)));
             return this;
         } catch (ElementNotFoundException e) {
             throw e;
@@ -212,25 +411,8 @@ public class DashboardPage {
 
     public DashboardPage clickFirstErroredLink() {
         try {
-            // Wait for at least one clickable errored link to be present
-            wait.until(ExpectedConditions.presenceOfElementLocated(erroredLinks));
-
-            List<WebElement> links = driver.findElements(erroredLinks);
-            if (links.isEmpty()) {
-                logFail("No errored transaction links found");
-                throw new ElementNotFoundException("No errored transaction links found");
-            }
-
-            // Find the first displayed and enabled link
-            WebElement clickableLink = links.stream()
-                    .filter(WebElement::isDisplayed)
-                    .filter(WebElement::isEnabled)
-                    .findFirst()
-                    .orElseThrow(() -> new ElementNotFoundException("No clickable errored transaction links found"));
-
-            // Wait for the element to be clickable and click it
-            wait.until(ExpectedConditions.elementToBeClickable(clickableLink));
-            clickableLink.click();
+            // One script picks the first visible, enabled and unobscured link, then a native click
+            StepRetry.run(test, "Open errored transactions", () -> actions.click(buttonLocator(ERRORED_COLUMN)));
             return this;
         } catch (ElementNotFoundException e) {
             throw e;
@@ -242,7 +424,7 @@ public class DashboardPage {
 
     public boolean isModalDisplayed() {
         try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(modalDialog));
+            wait.until(DomWait.visibilityOf(modalDialog));
             return true;
         } catch (Exception e) {
             logFail("Modal not displayed: " + e.getMessage());
@@ -252,12 +434,14 @@ public class DashboardPage {
 
     public DashboardPage closeModal() {
         try {
-            List<WebElement> closeButtons = driver.findElements(By.xpath("//button[contains(text(), 'Close')]"));
-            if (!closeButtons.isEmpty()) {
-                closeButtons.get(0).click();
-                return this;
-            }
-            driver.findElement(By.tagName("body")).sendKeys(org.openqa.selenium.Keys.ESCAPE);
+            StepRetry.run(test, "Close modal", () -> {
+                DomAction.Result closeButton = actions.find(modalCloseButton, Duration.ZERO);
+                if (closeButton.isOk()) {
+                    closeButton.getElement().click();
+                } else {
+                    new Actions(driver).sendKeys(Keys.ESCAPE).perform();
+                }
+            });
             return this;
         } catch (Exception e) {
             logFail("Failed to close modal: " + e.getMessage());
@@ -267,12 +451,15 @@ public class DashboardPage {
 
     public DashboardPage toggleAutoRefresh() {
         try {
-            List<WebElement> toggles = driver.findElements(autoRefreshToggle);
-            if (toggles.isEmpty()) {
-                logFail("Auto-refresh toggle not found");
-                throw new ElementNotFoundException("Auto-refresh toggle not found");
-            }
-            toggles.get(0).click();
+            // Safe to retry: a failed click never reached the toggle
+            StepRetry.run(test, "Toggle auto-refresh", () -> {
+                DomAction.Result toggle = actions.find(autoRefreshToggle, Duration.ZERO);
+                if (DomAction.NOT_FOUND.equals(toggle.getCode())) {
+                    logFail("Auto-refresh toggle not found");
+                    throw new ElementNotFoundException("Auto-refresh toggle not found");
+                }
+                toggle.orThrow().click();
+            });
             return this;
         } catch (ElementNotFoundException e) {
             throw e;
@@ -282,19 +469,42 @@ public class DashboardPage {
         }
     }
 
-    public DashboardPage enterColumnFilter(int columnIndex, String value) {
+    // Keeps auto-refresh on for the window while the probe records, then restores the switch
+    public RefreshProbe.Report probeAutoRefresh(RefreshProbe probe, Duration window) {
+        boolean wasOn = PageState.capture(driver).isAutoRefresh();
+        probe.start();
+        RefreshProbe.Report report;
         try {
-            List<WebElement> filters = driver.findElements(columnFilters);
-            if (columnIndex >= filters.size()) {
-                logFail("Column index " + columnIndex + " out of bounds");
-                throw new ElementNotFoundException("Column index out of bounds: " + columnIndex);
+            if (!wasOn) {
+                toggleAutoRefresh();
             }
-            WebElement filter = filters.get(columnIndex);
-            filter.clear();
-            filter.sendKeys(value);
-            wait.until(driver -> {
-                List<WebElement> rows = driver.findElements(tableRows);
-                return rows.isEmpty() || !rows.get(0).getText().isEmpty();
+            report = probe.record(window, Duration.ofMillis(TestConfig.getRefreshProbeSampleMillis()));
+        } finally {
+            if (!wasOn) {
+                toggleAutoRefresh();
+            }
+        }
+        if (test != null) {
+            ExtentReportManager.log(test, report.isWithinBudget() ? Status.INFO : Status.WARNING, report.summary());
+            ExtentReportManager.log(test, Status.INFO, MarkupHelper.createTable(report.toTable()));
+        }
+        return report;
+    }
+
+    public DashboardPage enterColumnFilter(int columnIndex, String value) {
+        try {
+            String action = "Column " + columnIndex + " filter '" + value + "'";
+            StepRetry.run(test, action, () -> {
+                List<WebElement> filters = driver.findElements(columnFilters);
+                if (columnIndex >= filters.size()) {
+                    logFail("Column index " + columnIndex + " out of bounds");
+                    throw new ElementNotFoundException("Column index out of bounds: " + columnIndex);
+                }
+                WebElement filter = filters.get(columnIndex);
+                long mark = network != null ? network.mark() : 0;
+                filter.clear();
+                filter.sendKeys(value);
+                awaitTableUpdate(action, mark);
             });
             return this;
         } catch (ElementNotFoundException e) {
@@ -307,12 +517,68 @@ public class DashboardPage {
 
     public DashboardPage clearAllFilters() {
         try {
-            List<WebElement> filters = driver.findElements(columnFilters);
-            filters.forEach(WebElement::clear);
+            StepRetry.run(test, "Clear filters", () -> actions.clearAll(columnFilters));
             return this;
         } catch (Exception e) {
             logFail("Failed to clear filters: " + e.getMessage());
             throw new ElementNotFoundException("Failed to clear filters", e);
         }
     }
+
+    // Baseline for resetState(): the page as loaded, once the first rows have rendered
+    public PageState captureState() {
+        wait.check(DomWait.firstMatchHasText(tableRows), Duration.ofSeconds(TestConfig.getExplicitWait()));
+        return PageState.capture(driver);
+    }
+
+    // Puts a reused page back into the baseline state without reloading it, then waits for the table
+    // to match. Returns false when that is not possible (a sort cannot be removed by clicking headers)
+    // or the table never matches, so the caller can fall back to a reload.
+    public boolean resetState(PageState baseline) {
+        try {
+            PageState state = PageState.capture(driver);
+            if (state.isModalOpen()) {
+                closeModal();
+            }
+            if (!state.getSearch().isEmpty()) {
+                clearSearch();
+            }
+            if (state.isFiltered()) {
+                clearAllFilters();
+            }
+            if (state.isAutoRefresh() != baseline.isAutoRefresh()) {
+                toggleAutoRefresh();
+            }
+            if (!state.hasSameSort(baseline)) {
+                if (baseline.getSortColumn().isEmpty()) {
+                    return false;
+                }
+                // Each header click flips the direction, so at most two are needed
+                By header = headerLocator(baseline.getSortColumn());
+                for (int click = 0; click < 2 && !state.hasSameSort(baseline); click++) {
+                    clickWithRetry("Restore sort '" + baseline.getSortColumn() + "'", header);
+                    state = PageState.capture(driver);
+                }
+            }
+            return awaitState(baseline);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean awaitState(PageState expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(TestConfig.getExplicitWait()).toNanos();
+        PageState state = PageState.capture(driver);
+        while (!state.matches(expected) && state.hasSameControls(expected)) {
+            long remaining = deadline - System.nanoTime();
+            DomWait.Condition change = state.getRowCount() != expected.getRowCount()
+                    ? DomWait.rowCountChanges(tableRows, state.getRowCount())
+                    : DomWait.textChanges(tableRows, state.getFirstRow());
+            if (remaining <= 0 || !wait.check(change, Duration.ofNanos(remaining))) {
+                break;
+            }
+            state = PageState.capture(driver);
+        }
+        return state.matches(expected);
+    }
 }
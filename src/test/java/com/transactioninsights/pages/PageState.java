@@ -0,0 +1,109 @@
+package com.transactioninsights.pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+
+// The dashboard state a test can change without a page load: search and column filters, an open modal,
+// the sorted column and direction, auto-refresh, plus the rendered rows. Read in one script round trip
+// with the same locators as DashboardPage.
+public final class PageState {
+
+    private static final String CAPTURE_SCRIPT =
+            "var search = document.querySelector(\"input[placeholder*='Search'], input[type='search']\");"
+            + "var filtered = false;"
+            + "document.querySelectorAll('thead input').forEach(function (input) { if (input.value) { filtered = true; } });"
+            + "var modal = false;"
+            + "document.querySelectorAll(\"[role='dialog'], .modal\").forEach(function (el) {"
+            + "  if (el.getClientRects().length > 0) { modal = true; }"
+            + "});"
+            + "var sortColumn = '', sortDirection = '';"
+            + "var sorted = document.querySelector(\"thead th[aria-sort]:not([aria-sort='none'])\");"
+            + "if (sorted) { sortColumn = sorted.innerText.trim(); sortDirection = sorted.getAttribute('aria-sort'); }"
+            + "var toggle = document.querySelector(\"button[role='switch']\");"
+            + "var rows = document.querySelectorAll('tbody tr');"
+            + "return {search: search ? search.value : '', filtered: filtered, modal: modal,"
+            + "  sortColumn: sortColumn, sortDirection: sortDirection,"
+            + "  autoRefresh: !!toggle && toggle.getAttribute('aria-checked') === 'true',"
+            + "  rowCount: rows.length, firstRow: rows.length > 0 ? rows[0].innerText : ''};";
+
+    private final String search;
+    private final boolean filtered;
+    private final boolean modalOpen;
+    private final String sortColumn;
+    private final String sortDirection;
+    private final boolean autoRefresh;
+    private final int rowCount;
+    private final String firstRow;
+
+    private PageState(Map<?, ?> values) {
+        this.search = String.valueOf(values.get("search"));
+        this.filtered = Boolean.TRUE.equals(values.get("filtered"));
+        this.modalOpen = Boolean.TRUE.equals(values.get("modal"));
+        this.sortColumn = String.valueOf(values.get("sortColumn"));
+        this.sortDirection = String.valueOf(values.get("sortDirection"));
+        this.autoRefresh = Boolean.TRUE.equals(values.get("autoRefresh"));
+        this.rowCount = ((Number) values.get("rowCount")).intValue();
+        this.firstRow = String.valueOf(values.get("firstRow"));
+    }
+
+    public static PageState capture(WebDriver driver) {
+        return new PageState((Map<?, ?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT));
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public boolean isFiltered() {
+        return filtered;
+    }
+
+    public boolean isModalOpen() {
+        return modalOpen;
+    }
+
+    // Header text of the sorted column, empty when the table is unsorted
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    // "ascending" or "descending", empty when the table is unsorted
+    public String getSortDirection() {
+        return sortDirection;
+    }
+
+    public boolean isAutoRefresh() {
+        return autoRefresh;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public String getFirstRow() {
+        return firstRow;
+    }
+
+    public boolean hasSameSort(PageState other) {
+        return sortColumn.equals(other.sortColumn) && sortDirection.equals(other.sortDirection);
+    }
+
+    // Same controls and toggles; the table itself may still be catching up
+    public boolean hasSameControls(PageState other) {
+        return search.equals(other.search) && filtered == other.filtered && modalOpen == other.modalOpen
+                && hasSameSort(other) && autoRefresh == other.autoRefresh;
+    }
+
+    public boolean matches(PageState other) {
+        return hasSameControls(other) && rowCount == other.rowCount && firstRow.equals(other.firstRow);
+    }
+
+    @Override
+    public String toString() {
+        return "search='" + search + "', filtered=" + filtered + ", modal=" + modalOpen
+                + ", sort=" + (sortColumn.isEmpty() ? "none" : sortColumn + " " + sortDirection)
+                + ", autoRefresh=" + autoRefresh + ", rows=" + rowCount;
+    }
+}
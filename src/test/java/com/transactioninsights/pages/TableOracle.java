@@ -0,0 +1,318 @@
+package com.transactioninsights.pages;
+
+import com.transactioninsights.config.TestConfig;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Predicts what a search, column filter or sort should leave in the table from one capture taken
+// before the action, then checks a capture taken after it. Cells are lower-cased once for the
+// case-insensitive substring matching the dashboard's inputs use, and number and date columns are
+// parsed once into long[] sort keys, so each check is O(n) with no per-row browser calls.
+// The capture must hold the whole table: behind a pager or a virtual window it only sees one slice.
+public final class TableOracle {
+
+    private static final byte TEXT = 0;
+    private static final byte NUMBER = 1;
+    private static final byte DATE = 2;
+    private static final char CELL_SEPARATOR = '\u001f';
+    private static final int MAX_PROBLEMS = 20;
+
+    private final TableSnapshot base;
+    private final String[] rowKeys;
+    // Row content -> first base row with it; rows with equal content sort and filter alike
+    private final Map<String, Integer> rowsByKey;
+    private final String[][] lowered;
+    private final byte[] kinds;
+    private final long[][] sortKeys;
+
+    private TableOracle(TableSnapshot base) {
+        this.base = base;
+        int rows = base.getRowCount();
+        int columns = base.getColumnCount();
+        rowKeys = rowKeys(base);
+        rowsByKey = new HashMap<>(rows * 2);
+        for (int r = 0; r < rows; r++) {
+            rowsByKey.putIfAbsent(rowKeys[r], r);
+        }
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(TestConfig.getConsistencyDatePattern(),
+                Locale.ROOT);
+        lowered = new String[columns][];
+        kinds = new byte[columns];
+        sortKeys = new long[columns][];
+        for (int c = 0; c < columns; c++) {
+            lowered[c] = new String[rows];
+            for (int r = 0; r < rows; r++) {
+                lowered[c][r] = base.getCell(r, c).toLowerCase(Locale.ROOT);
+            }
+            sortKeys[c] = parse(c, dateFormat);
+        }
+    }
+
+    public static TableOracle of(TableSnapshot base) {
+        return new TableOracle(base);
+    }
+
+    public int getRowCount() {
+        return base.getRowCount();
+    }
+
+    // Rows with the query in any cell, in their current order; a blank query keeps every row
+    public Expectation search(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        List<Integer> rows = new ArrayList<>();
+        for (int r = 0; r < base.getRowCount(); r++) {
+            if (needle.isEmpty() || containsInAnyColumn(r, needle)) {
+                rows.add(r);
+            }
+        }
+        return new Expectation("Search '" + query + "'", rows, -1, false);
+    }
+
+    // Rows whose cell in the column contains the value, in their current order
+    public Expectation filter(int column, String value) {
+        String needle = value.trim().toLowerCase(Locale.ROOT);
+        List<Integer> rows = new ArrayList<>();
+        for (int r = 0; r < base.getRowCount(); r++) {
+            if (needle.isEmpty() || lowered[column][r].contains(needle)) {
+                rows.add(r);
+            }
+        }
+        return new Expectation(header(column) + " filter '" + value + "'", rows, -1, false);
+    }
+
+    // The same rows, ordered by the column's text, number or date value; ties may come in any order
+    public Expectation sort(String columnName, boolean descending) {
+        int column = base.indexOf(columnName);
+        if (column < 0) {
+            throw new IllegalArgumentException("Column not found: " + columnName);
+        }
+        return sort(column, descending);
+    }
+
+    public Expectation sort(int column, boolean descending) {
+        List<Integer> rows = new ArrayList<>(base.getRowCount());
+        for (int r = 0; r < base.getRowCount(); r++) {
+            rows.add(r);
+        }
+        return new Expectation("Sort '" + header(column) + "' " + (descending ? "descending" : "ascending"),
+                rows, column, descending);
+    }
+
+    private boolean containsInAnyColumn(int row, String needle) {
+        for (String[] column : lowered) {
+            if (column[row].contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String header(int column) {
+        return column < base.getHeaders().size() ? base.getHeaders().get(column) : "Column " + column;
+    }
+
+    // Number or date keys when every non-empty cell parses as one, otherwise null (compared as text)
+    private long[] parse(int column, DateTimeFormatter dateFormat) {
+        int rows = base.getRowCount();
+        long[] numbers = new long[rows];
+        boolean numeric = true;
+        boolean any = false;
+        for (int r = 0; r < rows && numeric; r++) {
+            String cell = base.getCell(r, column).trim();
+            numbers[r] = cell.isEmpty() ? Long.MIN_VALUE : ConsistencyOracle.parseCount(cell);
+            numeric = cell.isEmpty() || numbers[r] != ConsistencyOracle.NOT_PARSED;
+            any |= !cell.isEmpty();
+        }
+        if (numeric && any) {
+            kinds[column] = NUMBER;
+            return numbers;
+        }
+        long[] days = new long[rows];
+        any = false;
+        for (int r = 0; r < rows; r++) {
+            String cell = base.getCell(r, column).trim();
+            if (cell.isEmpty()) {
+                days[r] = Long.MIN_VALUE;
+                continue;
+            }
+            try {
+                days[r] = LocalDate.parse(cell, dateFormat).toEpochDay();
+                any = true;
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        if (any) {
+            kinds[column] = DATE;
+            return days;
+        }
+        return null;
+    }
+
+    private int compare(int column, int a, int b) {
+        return kinds[column] == TEXT ? base.getCell(a, column).compareTo(base.getCell(b, column))
+                : Long.compare(sortKeys[column][a], sortKeys[column][b]);
+    }
+
+    private static String[] rowKeys(TableSnapshot table) {
+        String[] keys = new String[table.getRowCount()];
+        StringBuilder key = new StringBuilder();
+        for (int r = 0; r < keys.length; r++) {
+            key.setLength(0);
+            for (int c = 0; c < table.getColumnCount(); c++) {
+                key.append(table.getCell(r, c)).append(CELL_SEPARATOR);
+            }
+            keys[r] = key.toString();
+        }
+        return keys;
+    }
+
+    private static String display(String rowKey) {
+        return rowKey.substring(0, Math.max(0, rowKey.length() - 1)).replace(CELL_SEPARATOR, '|');
+    }
+
+    // What an action should leave in the table, as rows of the capture the oracle was built from
+    public final class Expectation {
+        private final String description;
+        private final List<Integer> rows;
+        private final int sortColumn;
+        private final boolean descending;
+
+        private Expectation(String description, List<Integer> rows, int sortColumn, boolean descending) {
+            this.description = description;
+            this.rows = Collections.unmodifiableList(rows);
+            this.sortColumn = sortColumn;
+            this.descending = descending;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public int size() {
+            return rows.size();
+        }
+
+        // Base row indexes; in table order for searches and filters
+        public List<Integer> getRows() {
+            return rows;
+        }
+
+        public Result check(TableSnapshot actual) {
+            String[] actualKeys = rowKeys(actual);
+            List<String> problems = new ArrayList<>();
+
+            Map<String, Integer> remaining = new HashMap<>(rows.size() * 2);
+            for (int row : rows) {
+                remaining.merge(rowKeys[row], 1, Integer::sum);
+            }
+            int unexpected = 0;
+            for (int i = 0; i < actualKeys.length; i++) {
+                Integer count = remaining.get(actualKeys[i]);
+                if (count == null || count == 0) {
+                    unexpected++;
+                    addProblem(problems, "Unexpected row " + (i + 1) + ": " + display(actualKeys[i]));
+                } else {
+                    remaining.put(actualKeys[i], count - 1);
+                }
+            }
+            int missing = 0;
+            for (int row : rows) {
+                Integer count = remaining.get(rowKeys[row]);
+                if (count > 0) {
+                    missing++;
+                    remaining.put(rowKeys[row], count - 1);
+                    addProblem(problems, "Missing row: " + display(rowKeys[row]));
+                }
+            }
+
+            if (unexpected == 0 && missing == 0) {
+                if (sortColumn < 0) {
+                    for (int i = 0; i < actualKeys.length; i++) {
+                        if (!actualKeys[i].equals(rowKeys[rows.get(i)])) {
+                            addProblem(problems, "Row " + (i + 1) + " out of order: expected "
+                                    + display(rowKeys[rows.get(i)]) + ", found " + display(actualKeys[i]));
+                            break;
+                        }
+                    }
+                } else {
+                    for (int i = 1; i < actualKeys.length; i++) {
+                        int previous = rowsByKey.get(actualKeys[i - 1]);
+                        int current = rowsByKey.get(actualKeys[i]);
+                        int order = compare(sortColumn, previous, current);
+                        if (descending ? order < 0 : order > 0) {
+                            addProblem(problems, "Rows " + i + " and " + (i + 1) + " are out of order: '"
+                                    + base.getCell(previous, sortColumn) + "' before '"
+                                    + base.getCell(current, sortColumn) + "'");
+                        }
+                    }
+                }
+            }
+            return new Result(description, rows.size(), actualKeys.length, missing, unexpected, problems);
+        }
+
+        private void addProblem(List<String> problems, String problem) {
+            if (problems.size() < MAX_PROBLEMS) {
+                problems.add(problem);
+            }
+        }
+    }
+
+    public static final class Result {
+        private final String description;
+        private final int expectedRows;
+        private final int actualRows;
+        private final int missing;
+        private final int unexpected;
+        private final List<String> problems;
+
+        Result(String description, int expectedRows, int actualRows, int missing, int unexpected,
+                List<String> problems) {
+            this.description = description;
+            this.expectedRows = expectedRows;
+            this.actualRows = actualRows;
+            this.missing = missing;
+            this.unexpected = unexpected;
+            this.problems = Collections.unmodifiableList(problems);
+        }
+
+        public boolean matches() {
+            return problems.isEmpty();
+        }
+
+        public int getExpectedRows() {
+            return expectedRows;
+        }
+
+        public int getActualRows() {
+            return actualRows;
+        }
+
+        // The first few missing, unexpected or misordered rows
+        public List<String> getProblems() {
+            return problems;
+        }
+
+        public String summary() {
+            if (matches()) {
+                return description + ": " + actualRows + " row(s) as expected";
+            }
+            return String.format(Locale.ROOT, "%s: expected %d row(s), table shows %d (%d missing, %d unexpected)",
+                    description, expectedRows, actualRows, missing, unexpected);
+        }
+
+        public String describe() {
+            StringBuilder text = new StringBuilder(summary());
+            problems.forEach(problem -> text.append('\n').append(problem));
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.transactioninsights.pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+// Browser-free checks of search, filter and sort expectations against hand-made captures
+public class TableOracleTest {
+
+    private static final String[] HEADERS = { "Name", "Date", "Total", "Status" };
+
+    private static final String[] ASHA = { "Asha Sharma", "2024-03-02", "200", "Completed" };
+    private static final String[] RAVI = { "Ravi Kumar", "2024-01-15", "1,000", "Failed" };
+    private static final String[] MEERA = { "Meera Sharma", "2023-12-31", "35", "Processing" };
+    private static final String[] JOHN = { "John Failedge", "2024-02-10", "200", "Completed" };
+
+    private final TableOracle oracle = TableOracle.of(capture(ASHA, RAVI, MEERA, JOHN));
+
+    @Test
+    public void searchMatchesAnyCellIgnoringCaseInTableOrder() {
+        TableOracle.Expectation search = oracle.search("  FAILED ");
+
+        Assert.assertEquals(search.getRows(), List.of(1, 3));
+        Assert.assertTrue(search.check(capture(RAVI, JOHN)).matches());
+        Assert.assertEquals(oracle.search("").size(), 4);
+    }
+
+    @Test
+    public void filterOnlyLooksAtItsColumn() {
+        TableOracle.Expectation filter = oracle.filter(3, "failed");
+
+        Assert.assertEquals(filter.getRows(), List.of(1));
+        Assert.assertTrue(filter.check(capture(RAVI)).matches());
+        Assert.assertEquals(oracle.filter(0, "sharma").getRows(), List.of(0, 2));
+    }
+
+    @Test
+    public void reportsMissingUnexpectedAndMisorderedRows() {
+        TableOracle.Result wrongRows = oracle.filter(0, "sharma").check(capture(ASHA, RAVI));
+        Assert.assertFalse(wrongRows.matches());
+        Assert.assertEquals(wrongRows.getExpectedRows(), 2);
+        Assert.assertEquals(wrongRows.getActualRows(), 2);
+        Assert.assertEquals(wrongRows.getProblems(), List.of(
+                "Unexpected row 2: Ravi Kumar|2024-01-15|1,000|Failed",
+                "Missing row: Meera Sharma|2023-12-31|35|Processing"));
+        Assert.assertTrue(wrongRows.summary().endsWith("(1 missing, 1 unexpected)"), wrongRows.summary());
+
+        TableOracle.Result reordered = oracle.filter(0, "sharma").check(capture(MEERA, ASHA));
+        Assert.assertFalse(reordered.matches());
+        Assert.assertTrue(reordered.getProblems().get(0).startsWith("Row 1 out of order"),
+                reordered.getProblems().toString());
+    }
+
+    @Test
+    public void sortsNumbersByValueNotText() {
+        TableOracle.Expectation ascending = oracle.sort("Total", false);
+
+        Assert.assertTrue(ascending.check(capture(MEERA, ASHA, JOHN, RAVI)).matches());
+        // Equal totals may come in either order
+        Assert.assertTrue(ascending.check(capture(MEERA, JOHN, ASHA, RAVI)).matches());
+        // As text, "1,000" would sort before "200"
+        TableOracle.Result textOrder = ascending.check(capture(RAVI, ASHA, JOHN, MEERA));
+        Assert.assertFalse(textOrder.matches());
+        Assert.assertEquals(textOrder.getProblems().get(0), "Rows 1 and 2 are out of order: '1,000' before '200'");
+        Assert.assertTrue(oracle.sort("Total", true).check(capture(RAVI, JOHN, ASHA, MEERA)).matches());
+    }
+
+    @Test
+    public void sortsDatesAndText() {
+        Assert.assertTrue(oracle.sort("Date", false).check(capture(MEERA, RAVI, JOHN, ASHA)).matches());
+        Assert.assertFalse(oracle.sort("Date", true).check(capture(MEERA, RAVI, JOHN, ASHA)).matches());
+        Assert.assertTrue(oracle.sort("Name", false).check(capture(ASHA, JOHN, MEERA, RAVI)).matches());
+        Assert.assertTrue(oracle.sort("Status", true).check(capture(MEERA, RAVI, JOHN, ASHA)).matches());
+    }
+
+    @Test
+    public void sortedTableMustKeepEveryRow() {
+        TableOracle.Result result = oracle.sort("Total", false).check(capture(MEERA, ASHA, RAVI));
+
+        Assert.assertFalse(result.matches());
+        Assert.assertEquals(result.getProblems(), List.of("Missing row: John Failedge|2024-02-10|200|Completed"));
+    }
+
+    @Test
+    public void duplicateRowsAreCountedNotCollapsed() {
+        TableOracle duplicates = TableOracle.of(capture(ASHA, ASHA, RAVI));
+
+        Assert.assertTrue(duplicates.search("sharma").check(capture(ASHA, ASHA)).matches());
+        Assert.assertFalse(duplicates.search("sharma").check(capture(ASHA)).matches());
+        Assert.assertTrue(duplicates.sort("Total", true).check(capture(RAVI, ASHA, ASHA)).matches());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void refusesToSortAnUnknownColumn() {
+        oracle.sort("Amount", false);
+    }
+
+    private static TableSnapshot capture(String[]... rows) {
+        return ConsistencyOracleTest.snapshot(HEADERS, rows);
+    }
+}
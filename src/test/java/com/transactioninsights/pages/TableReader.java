@@ -0,0 +1,231 @@
+package com.transactioninsights.pages;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Walks the whole logical table chunk by chunk, however it is rendered: rows all in the DOM, behind a
+// pager, or in a virtualized scroll container. Only the current chunk is held on either side.
+// Paged and virtual tables are recognised by aria-rowcount on the table and aria-rowindex on rows.
+public final class TableReader {
+
+    // Returns rows [start, start + max) that are rendered, moving the table first when none are:
+    // scrolling the nearest scroll container, or clicking the Next/Previous page control. Settles
+    // through a MutationObserver, like DomWait, and reports what it has after the timeout.
+    private static final String CHUNK_SCRIPT =
+            "var start = arguments[0], max = arguments[1], timeout = arguments[2];"
+            + "var done = arguments[arguments.length - 1];"
+            + "var table = document.querySelector('table');"
+            + "var body = table && table.tBodies.length > 0 ? table.tBodies[0] : null;"
+            + "var headers = [];"
+            + "if (table && start === 0) {"
+            + "  table.querySelectorAll('thead th').forEach(function (th) { headers.push(th.innerText.trim()); });"
+            + "}"
+            + "var total = function () {"
+            + "  var declared = table ? Number(table.getAttribute('aria-rowcount')) : 0;"
+            + "  return declared > 0 ? declared : (body ? body.rows.length : 0);"
+            + "};"
+            + "var indexOf = function (row, position) {"
+            + "  var aria = row.getAttribute('aria-rowindex');"
+            + "  return aria ? Number(aria) - 1 : position;"
+            + "};"
+            + "var cellsOf = function (row) {"
+            + "  var cells = [];"
+            + "  for (var c = 0; c < row.cells.length; c++) { cells.push(row.cells[c].innerText.trim()); }"
+            + "  return cells;"
+            + "};"
+            + "var collect = function () {"
+            + "  var rows = body ? body.rows : [], out = [];"
+            + "  var view = {rows: out, first: -1, rendered: rows.length};"
+            + "  if (rows.length === 0) { return view; }"
+            + "  view.first = indexOf(rows[0], 0);"
+            + "  for (var i = Math.max(0, start - view.first); i < rows.length && out.length < max; i++) {"
+            + "    if (indexOf(rows[i], i) !== start + out.length) { break; }"
+            + "    out.push(cellsOf(rows[i]));"
+            + "  }"
+            + "  return view;"
+            + "};"
+            + "var scrollParent = function () {"
+            + "  for (var el = table ? table.parentElement : null; el && el !== document.body; el = el.parentElement) {"
+            + "    var overflow = window.getComputedStyle(el).overflowY;"
+            + "    if ((overflow === 'auto' || overflow === 'scroll') && el.scrollHeight > el.clientHeight) { return el; }"
+            + "  }"
+            + "  return null;"
+            + "};"
+            + "var move = function (view) {"
+            + "  var scroller = scrollParent();"
+            + "  if (scroller) {"
+            + "    var perRow = scroller.scrollHeight / Math.max(1, total());"
+            + "    var before = scroller.scrollTop;"
+            + "    scroller.scrollTop = view.first < 0 ? start * perRow : before + (start - view.first) * perRow;"
+            + "    return scroller.scrollTop !== before;"
+            + "  }"
+            + "  var control = document.querySelector(start < view.first"
+            + "      ? \"[aria-label='Previous page'], [rel='prev']\" : \"[aria-label='Next page'], [rel='next']\");"
+            + "  if (control && !control.disabled) { control.click(); return true; }"
+            + "  return false;"
+            + "};"
+            + "var result = function (view) {"
+            + "  var memory = window.performance && performance.memory ? performance.memory.usedJSHeapSize : -1;"
+            + "  return {total: total(), headers: headers, rows: view.rows, rendered: view.rendered, heap: memory};"
+            + "};"
+            + "var view = collect();"
+            + "if (!body || view.rows.length > 0 || start >= total() || !move(view)) { done(result(view)); return; }"
+            + "var finished = false, moves = 1, observer, timer;"
+            + "var finish = function (latest) {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  observer.disconnect();"
+            + "  clearTimeout(timer);"
+            + "  done(result(latest));"
+            + "};"
+            + "var check = function () {"
+            + "  var latest = collect();"
+            + "  if (latest.rows.length > 0) { finish(latest); return; }"
+            // A new window that still misses start: keep paging or correct the scroll estimate
+            + "  if (latest.first !== view.first) {"
+            + "    view = latest;"
+            + "    if (++moves > 50 || !move(latest)) { finish(latest); }"
+            + "  }"
+            + "};"
+            + "observer = new MutationObserver(check);"
+            + "observer.observe(body, {childList: true, subtree: true});"
+            + "timer = setTimeout(function () { finish(collect()); }, timeout);";
+
+    private TableReader() {
+    }
+
+    // Hands each chunk of at most chunkSize rows to the consumer, in order, until the table's total is read
+    @SuppressWarnings("unchecked")
+    public static Stats stream(WebDriver driver, int chunkSize, Consumer<Chunk> consumer) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        // Each chunk is one executeAsyncScript call, so it must settle within the script timeout
+        long timeoutMillis = Math.min(TestConfig.getExplicitWait(), Math.max(1, TestConfig.getScriptTimeout() - 1))
+                * 1000L;
+        Stats stats = new Stats();
+        List<String> headers = Collections.emptyList();
+        int start = 0;
+        while (true) {
+            Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver)
+                    .executeAsyncScript(CHUNK_SCRIPT, start, chunkSize, timeoutMillis);
+            stats.total = ((Number) result.get("total")).intValue();
+            stats.maxRenderedRows = Math.max(stats.maxRenderedRows, ((Number) result.get("rendered")).intValue());
+            stats.maxHeapBytes = Math.max(stats.maxHeapBytes, ((Number) result.get("heap")).longValue());
+            if (start == 0) {
+                headers = toStrings((List<Object>) result.get("headers"));
+            }
+            List<Object> rawRows = (List<Object>) result.get("rows");
+            if (rawRows.isEmpty()) {
+                if (start < stats.total) {
+                    throw new IllegalStateException("Table reader could not reach row " + (start + 1) + " of "
+                            + stats.total + " (no rows rendered after scrolling or paging)");
+                }
+                break;
+            }
+            List<List<String>> rows = new ArrayList<>(rawRows.size());
+            for (Object row : rawRows) {
+                rows.add(toStrings((List<Object>) row));
+            }
+            consumer.accept(new Chunk(start, headers, rows));
+            stats.chunks++;
+            stats.rowsRead += rows.size();
+            start += rows.size();
+            if (start >= stats.total) {
+                break;
+            }
+        }
+        stats.nanos = System.nanoTime() - stats.startNanos;
+        return stats;
+    }
+
+    private static List<String> toStrings(List<Object> values) {
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object value : values) {
+            strings.add(value == null ? "" : value.toString());
+        }
+        return strings;
+    }
+
+    // Consecutive rows of the logical table, starting at a 0-based row index
+    public static final class Chunk {
+        private final int start;
+        private final List<String> headers;
+        private final List<List<String>> rows;
+
+        Chunk(int start, List<String> headers, List<List<String>> rows) {
+            this.start = start;
+            this.headers = headers;
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int size() {
+            return rows.size();
+        }
+
+        public List<String> getHeaders() {
+            return headers;
+        }
+
+        public List<List<String>> getRows() {
+            return rows;
+        }
+
+        public String getCell(int row, int column) {
+            List<String> cells = rows.get(row);
+            return column < cells.size() ? cells.get(column) : "";
+        }
+    }
+
+    public static final class Stats {
+        private final long startNanos = System.nanoTime();
+        private long nanos;
+        private int total;
+        private int rowsRead;
+        private int chunks;
+        private int maxRenderedRows;
+        private long maxHeapBytes = -1;
+
+        // Rows the table reports (aria-rowcount), not just the rendered ones
+        public int getTotal() {
+            return total;
+        }
+
+        public int getRowsRead() {
+            return rowsRead;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : rowsRead * 1e9 / nanos;
+        }
+
+        // Largest number of rows the page had in its DOM at once
+        public int getMaxRenderedRows() {
+            return maxRenderedRows;
+        }
+
+        // Largest JS heap seen between chunks, or -1 when the browser does not expose it
+        public long getMaxHeapBytes() {
+            return maxHeapBytes;
+        }
+    }
+}
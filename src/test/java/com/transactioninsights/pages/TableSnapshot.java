@@ -0,0 +1,210 @@
+package com.transactioninsights.pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public final class TableSnapshot {
+
+    // Bumps window.__tiHeaderVersion whenever anything inside a thead changes or a table/header
+    // is added or removed. The epoch changes on every page load, so versions never collide.
+    private static final String HEADER_OBSERVER_SCRIPT =
+            "var w = window;"
+            + "if (!w.__tiHeaderObserver) {"
+            + "  w.__tiHeaderEpoch = Math.random().toString(36).slice(2);"
+            + "  w.__tiHeaderVersion = 0;"
+            + "  var touches = function (nodes) {"
+            + "    for (var i = 0; i < nodes.length; i++) {"
+            + "      var n = nodes[i];"
+            + "      if (n.nodeType === 1 && (n.matches('table, thead, th') || n.querySelector('thead'))) { return true; }"
+            + "    }"
+            + "    return false;"
+            + "  };"
+            + "  w.__tiHeaderObserver = new MutationObserver(function (records) {"
+            + "    for (var i = 0; i < records.length; i++) {"
+            + "      var rec = records[i];"
+            + "      var el = rec.target.nodeType === 1 ? rec.target : rec.target.parentElement;"
+            + "      if ((el && el.closest('thead')) || touches(rec.addedNodes) || touches(rec.removedNodes)) {"
+            + "        w.__tiHeaderVersion++;"
+            + "        return;"
+            + "      }"
+            + "    }"
+            + "  });"
+            + "  w.__tiHeaderObserver.observe(document.documentElement, {childList: true, subtree: true, characterData: true});"
+            + "}"
+            + "var headerVersion = w.__tiHeaderEpoch + ':' + w.__tiHeaderVersion;";
+
+    // Reads headers, cell text and button presence for the whole table in one round trip.
+    // Columns come back as arrays and button flags as one "0101..." string per column.
+    private static final String CAPTURE_SCRIPT = HEADER_OBSERVER_SCRIPT
+            + "var table = document.querySelector('table');"
+            + "if (!table) { return {headers: [], columns: [], buttons: [], headerVersion: headerVersion}; }"
+            + "var headers = [];"
+            + "table.querySelectorAll('thead th').forEach(function (th) { headers.push(th.innerText.trim()); });"
+            + "var rows = table.querySelectorAll('tbody tr');"
+            + "var width = headers.length;"
+            + "rows.forEach(function (row) { width = Math.max(width, row.cells.length); });"
+            + "var columns = [], buttons = [];"
+            + "for (var c = 0; c < width; c++) { columns.push(new Array(rows.length)); buttons.push(''); }"
+            + "for (var r = 0; r < rows.length; r++) {"
+            + "  var cells = rows[r].cells;"
+            + "  for (var c = 0; c < width; c++) {"
+            + "    var cell = cells[c];"
+            + "    columns[c][r] = cell ? cell.innerText.trim() : '';"
+            + "    buttons[c] += cell && cell.querySelector('button') ? '1' : '0';"
+            + "  }"
+            + "}"
+            + "return {headers: headers, columns: columns, buttons: buttons, headerVersion: headerVersion};";
+
+    private static final TableSnapshot EMPTY = new TableSnapshot(new String[0], new String[0][], new BitSet[0], 0, "");
+
+    private final List<String> headers;
+    private final String[][] columns;
+    private final BitSet[] buttons;
+    private final int rowCount;
+    private final String headerVersion;
+
+    private TableSnapshot(String[] headers, String[][] columns, BitSet[] buttons, int rowCount, String headerVersion) {
+        this.headers = Collections.unmodifiableList(Arrays.asList(headers));
+        this.columns = columns;
+        this.buttons = buttons;
+        this.rowCount = rowCount;
+        this.headerVersion = headerVersion;
+    }
+
+    public static TableSnapshot capture(WebDriver driver) {
+        return fromScriptResult(((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT));
+    }
+
+    public static TableSnapshot empty() {
+        return EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    static TableSnapshot fromScriptResult(Object result) {
+        if (!(result instanceof Map)) {
+            return EMPTY;
+        }
+        Map<String, Object> map = (Map<String, Object>) result;
+        List<Object> rawHeaders = (List<Object>) map.get("headers");
+        List<List<Object>> rawColumns = (List<List<Object>>) map.get("columns");
+        List<Object> rawButtons = (List<Object>) map.get("buttons");
+
+        String[] headers = new String[rawHeaders.size()];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = String.valueOf(rawHeaders.get(i));
+        }
+
+        int rowCount = rawColumns.isEmpty() ? 0 : rawColumns.get(0).size();
+        String[][] columns = new String[rawColumns.size()][];
+        BitSet[] buttons = new BitSet[rawColumns.size()];
+        for (int c = 0; c < columns.length; c++) {
+            List<Object> rawColumn = rawColumns.get(c);
+            String flags = String.valueOf(rawButtons.get(c));
+            columns[c] = new String[rowCount];
+            buttons[c] = new BitSet(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                Object value = rawColumn.get(r);
+                columns[c][r] = value == null ? "" : value.toString();
+                if (flags.charAt(r) == '1') {
+                    buttons[c].set(r);
+                }
+            }
+        }
+        Object headerVersion = map.get("headerVersion");
+        return new TableSnapshot(headers, columns, buttons, rowCount,
+                headerVersion == null ? "" : headerVersion.toString());
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    // Changes whenever the header row is mutated or the page is reloaded
+    public String getHeaderVersion() {
+        return headerVersion;
+    }
+
+    // Exact header match first, then the first header containing the name
+    public int indexOf(String columnName) {
+        int index = headers.indexOf(columnName);
+        if (index >= 0) {
+            return index;
+        }
+        for (int i = 0; i < headers.size(); i++) {
+            if (headers.get(i).contains(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasColumns(String... columnNames) {
+        return missingColumns(columnNames).isEmpty();
+    }
+
+    public List<String> missingColumns(String... columnNames) {
+        List<String> missing = new ArrayList<>();
+        for (String columnName : columnNames) {
+            if (indexOf(columnName) < 0) {
+                missing.add(columnName);
+            }
+        }
+        return missing;
+    }
+
+    public String getCell(int row, int column) {
+        return columns[column][row];
+    }
+
+    public List<String> getColumn(int column) {
+        return Collections.unmodifiableList(Arrays.asList(columns[column]));
+    }
+
+    public List<String> getColumn(String columnName) {
+        int index = indexOf(columnName);
+        if (index < 0) {
+            throw new IllegalArgumentException("Column not found: " + columnName);
+        }
+        return getColumn(index);
+    }
+
+    public List<String> getRow(int row) {
+        String[] values = new String[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            values[c] = columns[c][row];
+        }
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    public boolean hasButton(int row, int column) {
+        return buttons[column].get(row);
+    }
+
+    public int countButtons(int column) {
+        return buttons[column].cardinality();
+    }
+
+    // Row index of the first cell in the column holding a button, or -1
+    public int firstRowWithButton(int column) {
+        return buttons[column].nextSetBit(0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.transactioninsights.runner;
+
+import com.transactioninsights.utils.DurationHistory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class ShardPlanner {
+
+    private final DurationHistory history;
+
+    public ShardPlanner(DurationHistory history) {
+        this.history = history;
+    }
+
+    // Parses "i/N" with 1-based shard index, e.g. "2/4"
+    public static int[] parseShard(String spec) {
+        String[] parts = spec.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Shard must be given as i/N, got: " + spec);
+        }
+        int index = Integer.parseInt(parts[0].trim());
+        int total = Integer.parseInt(parts[1].trim());
+        if (total < 1 || index < 1 || index > total) {
+            throw new IllegalArgumentException("Shard index out of range: " + spec);
+        }
+        return new int[] { index, total };
+    }
+
+    public static List<String> discoverTestMethods(List<String> classNames) {
+        List<String> methodIds = new ArrayList<>();
+        for (String className : classNames) {
+            Class<?> testClass;
+            try {
+                testClass = Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Test class not found: " + className, e);
+            }
+            for (Method method : testClass.getMethods()) {
+                Test annotation = method.getAnnotation(Test.class);
+                if (annotation != null && annotation.enabled() && !Modifier.isStatic(method.getModifiers())) {
+                    methodIds.add(DurationHistory.methodId(className, method.getName()));
+                }
+            }
+        }
+        methodIds.sort(Comparator.naturalOrder());
+        return methodIds;
+    }
+
+    // Longest-processing-time-first bin packing. Every worker computes the same plan
+    // as long as it sees the same history file, so shards never overlap.
+    public List<List<String>> plan(List<String> methodIds, int shardCount) {
+        long fallback = history.getDefaultDuration();
+        List<String> ordered = new ArrayList<>(methodIds);
+        ordered.sort(Comparator.comparingLong((String id) -> history.getDuration(id, fallback)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        List<List<String>> shards = new ArrayList<>();
+        long[] loads = new long[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (String id : ordered) {
+            int lightest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            shards.get(lightest).add(id);
+            loads[lightest] += history.getDuration(id, fallback);
+        }
+        return shards;
+    }
+
+    public long estimate(List<String> shard) {
+        long fallback = history.getDefaultDuration();
+        return shard.stream().mapToLong(id -> history.getDuration(id, fallback)).sum();
+    }
+}
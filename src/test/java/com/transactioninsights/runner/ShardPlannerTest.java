@@ -0,0 +1,128 @@
+package com.transactioninsights.runner;
+
+import com.transactioninsights.utils.DurationHistory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Shard balancing against a hand-written duration history in a temporary history.dir
+public class ShardPlannerTest {
+
+    private Path dir;
+
+    @BeforeMethod
+    public void useTemporaryHistory() throws IOException {
+        dir = Files.createTempDirectory("shard-history");
+        System.setProperty("history.dir", dir.toString());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreHistory() throws IOException {
+        System.clearProperty("history.dir");
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void parsesOneBasedShardSpecs() {
+        Assert.assertEquals(ShardPlanner.parseShard("2/4"), new int[] { 2, 4 });
+        Assert.assertEquals(ShardPlanner.parseShard(" 1 / 1 "), new int[] { 1, 1 });
+    }
+
+    @Test
+    public void rejectsMalformedShardSpecs() {
+        for (String spec : new String[] { "0/2", "3/2", "1/0", "2", "1/2/3" }) {
+            Assert.assertThrows(IllegalArgumentException.class, () -> ShardPlanner.parseShard(spec));
+        }
+    }
+
+    @Test
+    public void placesTheLongestMethodsFirstOnTheLightestShard() throws IOException {
+        ShardPlanner planner = planner("a=8000", "b=7000", "c=6000", "d=5000", "e=4000");
+
+        List<List<String>> shards = planner.plan(List.of("e", "d", "c", "b", "a"), 2);
+
+        Assert.assertEquals(shards, List.of(List.of("a", "d", "e"), List.of("b", "c")));
+        Assert.assertEquals(planner.estimate(shards.get(0)), 17_000);
+        Assert.assertEquals(planner.estimate(shards.get(1)), 13_000);
+    }
+
+    @Test
+    public void unknownMethodsCostTheMedianDuration() throws IOException {
+        ShardPlanner planner = planner("a=1000", "b=3000", "c=9000");
+
+        Assert.assertEquals(planner.estimate(List.of("new1", "new2")), 6000);
+        Assert.assertEquals(planner.plan(List.of("a", "new1", "c"), 2),
+                List.of(List.of("c"), List.of("new1", "a")));
+    }
+
+    @Test
+    public void everyMethodLandsOnExactlyOneShardInTheSamePlanEverywhere() throws IOException {
+        List<String> entries = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            methods.add("m" + i);
+            if (i % 3 != 0) {
+                entries.add("m" + i + "=" + (1000 + (i * 7919) % 20000));
+            }
+        }
+        ShardPlanner planner = planner(entries.toArray(new String[0]));
+
+        List<List<String>> plan = planner.plan(methods, 4);
+        List<String> shuffled = new ArrayList<>(methods);
+        Collections.shuffle(shuffled, new Random(7));
+        Assert.assertEquals(planner.plan(shuffled, 4), plan, "plan depends on input order");
+
+        Set<String> assigned = new HashSet<>();
+        plan.forEach(shard -> shard.forEach(id -> Assert.assertTrue(assigned.add(id), id + " planned twice")));
+        Assert.assertEquals(assigned, new HashSet<>(methods));
+
+        // LPT keeps every shard within one method of the ideal share
+        List<Long> loads = plan.stream().map(planner::estimate).collect(Collectors.toList());
+        long total = loads.stream().mapToLong(Long::longValue).sum();
+        long longest = methods.stream().mapToLong(id -> planner.estimate(List.of(id))).max().orElse(0);
+        for (long load : loads) {
+            Assert.assertTrue(load <= total / 4 + longest, "unbalanced shards " + loads);
+        }
+    }
+
+    @Test
+    public void moreShardsThanMethodsLeavesSomeEmpty() throws IOException {
+        List<List<String>> shards = planner("a=10").plan(List.of("a", "b"), 3);
+
+        Assert.assertEquals(shards, List.of(List.of("a"), List.of("b"), List.of()));
+    }
+
+    @Test
+    public void discoversEnabledInstanceTestMethodsInOrder() {
+        List<String> methods = ShardPlanner.discoverTestMethods(List.of(ShardPlannerTest.class.getName()));
+
+        Assert.assertTrue(methods.contains(DurationHistory.methodId(ShardPlannerTest.class.getName(),
+                "discoversEnabledInstanceTestMethodsInOrder")));
+        Assert.assertFalse(methods.contains(DurationHistory.methodId(ShardPlannerTest.class.getName(),
+                "useTemporaryHistory")));
+        Assert.assertEquals(methods, methods.stream().sorted().collect(Collectors.toList()));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> ShardPlanner.discoverTestMethods(List.of("com.transactioninsights.NoSuchTest")));
+    }
+
+    private ShardPlanner planner(String... durations) throws IOException {
+        Files.write(dir.resolve("durations.properties"), List.of(durations));
+        return new ShardPlanner(DurationHistory.load());
+    }
+}
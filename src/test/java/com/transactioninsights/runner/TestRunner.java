@@ -1,41 +1,131 @@
 package com.transactioninsights.runner;
 
+import com.transactioninsights.config.TestConfig;
+import com.transactioninsights.driver.DriverFactory;
+import com.transactioninsights.driver.LaunchMetrics;
+import com.transactioninsights.fixture.DashboardFixtureServer;
+import com.transactioninsights.utils.DurationHistory;
+import com.transactioninsights.utils.DurationRecorder;
+import com.transactioninsights.utils.ExtentReportManager;
+import com.transactioninsights.utils.LongestFirstInterceptor;
+import com.transactioninsights.utils.ParallelConfigListener;
+import com.transactioninsights.utils.QuarantineInterceptor;
+import com.transactioninsights.utils.TestHistory;
 import org.testng.TestNG;
 import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
 import org.testng.xml.XmlSuite;
 import org.testng.xml.XmlTest;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TestRunner {
 
+    private static final List<String> TEST_CLASSES = List.of("com.transactioninsights.tests.DashboardTest");
+    private static final String OUTPUT_DIR = "test-output";
+
     public static void main(String[] args) {
+        int[] shard = null;
+        List<String> mergeDirs = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--shard".equals(args[i]) && i + 1 < args.length) {
+                shard = ShardPlanner.parseShard(args[++i]);
+            } else if ("--compact-history".equals(args[i])) {
+                System.out.println("Compacted test history: " + TestHistory.compact() + " record(s) dropped");
+                return;
+            } else if ("--seed-browser-profile".equals(args[i])) {
+                seedBrowserProfile();
+                return;
+            } else if ("--measure-launch".equals(args[i])) {
+                int launches = i + 1 < args.length && !args[i + 1].startsWith("--") ? Integer.parseInt(args[++i]) : 5;
+                measureLaunch(launches);
+                return;
+            } else if ("--merge-reports".equals(args[i])) {
+                mergeDirs = new ArrayList<>();
+                while (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    mergeDirs.add(args[++i]);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]
+                        + " (usage: [--shard i/N] | [--merge-reports [shard-dir ...]] | [--compact-history]"
+                        + " | [--seed-browser-profile] | [--measure-launch [launches]])");
+            }
+        }
+
+        if (mergeDirs != null) {
+            mergeReports(mergeDirs);
+            return;
+        }
+
         // Create TestNG instance
         TestNG testNG = new TestNG();
 
         // Create XML Suite
         XmlSuite suite = new XmlSuite();
         suite.setName("Transaction Insights Automation Suite");
-        suite.setParallel(XmlSuite.ParallelMode.NONE);
+        ParallelConfigListener.apply(suite);
         suite.setVerbose(2);
+        suite.addListener(DurationRecorder.class.getName());
+        suite.addListener(QuarantineInterceptor.class.getName());
+        suite.addListener(LongestFirstInterceptor.class.getName());
 
         // Create XML Test
         XmlTest test = new XmlTest(suite);
         test.setName("Dashboard Tests");
 
-        // Add test classes
+        // Add test classes, restricted to this worker's methods when sharding
+        String outputDir = OUTPUT_DIR;
         List<XmlClass> classes = new ArrayList<>();
-        classes.add(new XmlClass("com.transactioninsights.tests.DashboardTest"));
+        if (shard == null) {
+            TEST_CLASSES.forEach(className -> classes.add(new XmlClass(className)));
+        } else {
+            ShardPlanner planner = new ShardPlanner(DurationHistory.load());
+            List<List<String>> plan = planner.plan(ShardPlanner.discoverTestMethods(TEST_CLASSES), shard[1]);
+            List<String> assigned = plan.get(shard[0] - 1);
+            System.out.println("Shard " + shard[0] + "/" + shard[1] + ": " + assigned.size()
+                    + " methods, estimated " + planner.estimate(assigned) + " ms");
+            if (assigned.isEmpty()) {
+                System.out.println("Nothing assigned to this shard");
+                return;
+            }
+            for (String className : TEST_CLASSES) {
+                List<XmlInclude> includes = assigned.stream()
+                        .filter(id -> id.startsWith(className + "."))
+                        .map(id -> new XmlInclude(id.substring(className.length() + 1)))
+                        .collect(Collectors.toList());
+                if (!includes.isEmpty()) {
+                    XmlClass xmlClass = new XmlClass(className);
+                    xmlClass.setIncludedMethods(includes);
+                    classes.add(xmlClass);
+                }
+            }
+
+            // Each shard reports into its own directory for the merge step
+            outputDir = OUTPUT_DIR + "/shard-" + shard[0];
+            System.setProperty("report.path", outputDir + "/extent-report.html");
+        }
         test.setXmlClasses(classes);
 
+        // Flaky methods are moved here by QuarantineInterceptor and run once, after the main test
+        XmlTest quarantine = new XmlTest(suite);
+        quarantine.setName("Quarantined Tests");
+        quarantine.addParameter(QuarantineInterceptor.QUARANTINE_PARAMETER, "true");
+        quarantine.setXmlClasses(classes.stream().map(xmlClass -> (XmlClass) xmlClass.clone()).collect(Collectors.toList()));
+
         // Add suite to TestNG
         List<XmlSuite> suites = new ArrayList<>();
         suites.add(suite);
         testNG.setXmlSuites(suites);
 
         // Set output directory
-        testNG.setOutputDirectory("test-output");
+        testNG.setOutputDirectory(outputDir);
 
         // Run tests
         System.out.println("========================================");
@@ -46,7 +136,54 @@ public class TestRunner {
 
         System.out.println("\n========================================");
         System.out.println("Test Execution Completed");
-        System.out.println("Check reports at: test-output/extent-report.html");
+        System.out.println("Check reports at: " + outputDir + "/extent-report.html");
         System.out.println("========================================");
     }
+
+    private static void seedBrowserProfile() {
+        DashboardFixtureServer.startIfEnabled();
+        try {
+            System.out.println("Seeded browser profile template at "
+                    + DriverFactory.seedProfileTemplate(TestConfig.getAppUrl()).toAbsolutePath());
+        } finally {
+            DashboardFixtureServer.stopShared();
+        }
+    }
+
+    // Launches and navigates the configured app with each browser profile in turn, to compare them on this agent
+    private static void measureLaunch(int launches) {
+        DashboardFixtureServer.startIfEnabled();
+        try {
+            LaunchMetrics.reset();
+            for (String profile : List.of(DriverFactory.STANDARD_PROFILE, DriverFactory.FAST_PROFILE)) {
+                // One unrecorded launch first, so disk caches favour neither profile
+                DriverFactory.createDriverAt(TestConfig.getAppUrl(), profile).quit();
+                LaunchMetrics.reset();
+                for (int i = 0; i < launches; i++) {
+                    DriverFactory.createDriverAt(TestConfig.getAppUrl(), profile).quit();
+                }
+                System.out.println(profile + ": " + LaunchMetrics.summary(profile));
+            }
+        } finally {
+            DashboardFixtureServer.stopShared();
+        }
+    }
+
+    private static void mergeReports(List<String> shardDirs) {
+        List<Path> archives = new ArrayList<>();
+        if (shardDirs.isEmpty()) {
+            try (Stream<Path> dirs = Files.list(Paths.get(OUTPUT_DIR))) {
+                dirs.filter(dir -> dir.getFileName().toString().startsWith("shard-"))
+                        .sorted()
+                        .forEach(dir -> archives.add(dir.resolve(ExtentReportManager.JSON_ARCHIVE)));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to list shard reports in " + OUTPUT_DIR, e);
+            }
+        } else {
+            shardDirs.forEach(dir -> archives.add(Paths.get(dir, ExtentReportManager.JSON_ARCHIVE)));
+        }
+
+        int merged = ExtentReportManager.mergeArchives(archives);
+        System.out.println("Merged " + merged + " shard report(s) into " + TestConfig.getReportPath());
+    }
 }
@@ -1,15 +1,27 @@
 package com.transactioninsights.tests;
 
 import com.transactioninsights.config.TestConfig;
+import com.transactioninsights.driver.DriverFactory;
+import com.transactioninsights.driver.DriverPool;
+import com.transactioninsights.driver.LaunchMetrics;
+import com.transactioninsights.fixture.DashboardFixtureServer;
 import com.transactioninsights.pages.DashboardPage;
+import com.transactioninsights.pages.PageState;
+import com.transactioninsights.utils.CommandMetrics;
+import com.transactioninsights.utils.CommandTimer;
+import com.transactioninsights.utils.ExcelUtil;
 import com.transactioninsights.utils.ExtentReportManager;
-import com.aventstack.extentreports.ExtentTest;
+import com.transactioninsights.utils.NetworkMonitor;
+import com.transactioninsights.utils.QuarantineInterceptor;
+import com.transactioninsights.utils.RefreshProbe;
+import com.transactioninsights.utils.ReportNode;
+import com.transactioninsights.utils.ScreenshotStore;
+import com.transactioninsights.utils.StepRetry;
 import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.IRetryAnalyzer;
@@ -17,110 +29,306 @@ import com.transactioninsights.utils.TestRetryAnalyzer;
 import org.testng.annotations.*;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import java.lang.reflect.Method;
-import java.time.Duration;
 
 public class BaseTest {
 
-    protected WebDriver driver;
-    protected ExtentTest test;
-    protected DashboardPage dashboardPage;
+    // Report nodes survive across retries of the same method + arguments
+    private static final Map<String, ReportNode> reportNodes = new ConcurrentHashMap<>();
+
+    // Page state of each pooled session right after it was loaded, the target of in-page resets
+    private static final Map<WebDriver, PageState> baselines = new ConcurrentHashMap<>();
+
+    static {
+        // Sessions quit by the pool, e.g. as unhealthy, would otherwise stay reachable until suite end
+        DriverPool.onEvict(baselines::remove);
+    }
+
+    // Thread-confined so parallel="methods" can share one test class instance
+    private final ThreadLocal<WebDriver> session = new ThreadLocal<>();
+    private final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    private final ThreadLocal<CommandTimer> commandTimer = new ThreadLocal<>();
+    private final ThreadLocal<ReportNode> test = new ThreadLocal<>();
+    private final ThreadLocal<DashboardPage> dashboardPage = new ThreadLocal<>();
+    private final ThreadLocal<NetworkMonitor> networkMonitor = new ThreadLocal<>();
+
+    protected WebDriver getDriver() {
+        return driver.get();
+    }
+
+    protected ReportNode getTest() {
+        return test.get();
+    }
+
+    protected DashboardPage getDashboardPage() {
+        return dashboardPage.get();
+    }
+
+    // Page scripts go through the timed driver; DevTools comes from the raw session
+    protected RefreshProbe createRefreshProbe() {
+        return new RefreshProbe(getDriver(), session.get());
+    }
 
     @BeforeSuite
     public void setUpSuite() {
+        DashboardFixtureServer.startIfEnabled();
         ExtentReportManager.getInstance();
+        if (TestConfig.isDriverPoolEnabled()) {
+            DriverPool.warmUp();
+        }
     }
 
     @BeforeMethod
-    public void setUp(Method method, ITestContext context, Object[] args) {
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless=new");
-        options.addArguments("--remote-allow-origins=*");
-        options.addArguments("--disable-notifications");
-
-        driver = new ChromeDriver(options);
-        driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(TestConfig.getImplicitWait()));
-        driver.get(TestConfig.getAppUrl());
-
-        String testKey = method.getName() + Arrays.toString(args);
-        if (context.getAttribute(testKey) != null) {
-            test = (ExtentTest) context.getAttribute(testKey);
-            ExtentReportManager.setTest(test);
-            test.log(Status.INFO, "<b>--- Retry Started ---</b>");
+    public void setUp(Method method, Object[] args, ITestContext context) {
+        long setupStart = System.nanoTime();
+        if (TestConfig.isDriverPoolEnabled()) {
+            session.set(DriverPool.borrow());
+        } else {
+            session.set(DriverFactory.createDriverAt(TestConfig.getAppUrl()));
+        }
+        // Page objects get the timed driver; the pool and DevTools keep working with the raw session
+        if (TestConfig.isCommandTimingEnabled()) {
+            CommandTimer timer = new CommandTimer();
+            commandTimer.set(timer);
+            driver.set(timer.decorate(session.get()));
+        } else {
+            driver.set(session.get());
+        }
+
+        String testKey = method.getDeclaringClass().getName() + "." + method.getName() + Arrays.toString(args);
+        ReportNode reportNode = reportNodes.get(testKey);
+        if (reportNode != null) {
+            ExtentReportManager.setTest(reportNode);
+            ExtentReportManager.log(reportNode, Status.INFO, "<b>--- Retry Started ---</b>");
         } else {
             Test testAnnotation = method.getAnnotation(Test.class);
             String testName = method.getName().replaceAll("([A-Z])", " $1").trim();
             if (args.length > 0) {
                 testName += " " + Arrays.toString(args);
             }
-            test = ExtentReportManager.createTest(testName, testAnnotation.description());
-            test.assignCategory("Dashboard Testing");
-            context.setAttribute(testKey, test);
+            reportNode = ExtentReportManager.createTest(testName, testAnnotation.description());
+            ExtentReportManager.submit(reportNode, node -> node.assignCategory("Dashboard Testing"));
+            if (QuarantineInterceptor.isQuarantineRun(context.getCurrentXmlTest())) {
+                ExtentReportManager.submit(reportNode, node -> node.assignCategory("Quarantine"));
+            }
+            reportNodes.put(testKey, reportNode);
         }
-        dashboardPage = new DashboardPage(driver, test);
+        test.set(reportNode);
+        if (TestConfig.isNetworkWaitEnabled()) {
+            networkMonitor.set(attachNetworkMonitor(reportNode));
+        }
+        dashboardPage.set(new DashboardPage(getDriver(), reportNode, networkMonitor.get()));
+        if (TestConfig.isDriverPoolEnabled() && !TestConfig.isNavigationPerTest()) {
+            prepareReusedPage(reportNode);
+        }
+        StepRetry.startTest((System.nanoTime() - setupStart) / 1_000_000);
     }
 
     @AfterMethod
     public void tearDown(ITestResult result) {
-        if (test != null) {
+        ReportNode reportNode = getTest();
+        CommandTimer.TestTiming timing = finishCommandTiming(result);
+        StepRetry.Stats stepRetries = StepRetry.finishTest();
+        if (reportNode != null) {
             if (result.getStatus() == ITestResult.FAILURE) {
                 IRetryAnalyzer retryAnalyzer = result.getMethod().getRetryAnalyzer(result);
-                boolean isRetry = false;
-                if (retryAnalyzer instanceof TestRetryAnalyzer) {
-                    TestRetryAnalyzer testRetryAnalyzer = (TestRetryAnalyzer) retryAnalyzer;
-                    if (testRetryAnalyzer.getRetryCount() < testRetryAnalyzer.getMaxRetryCount()) {
-                        isRetry = true;
-                    }
-                }
+                boolean isRetry = retryAnalyzer instanceof TestRetryAnalyzer
+                        && ((TestRetryAnalyzer) retryAnalyzer).willRetry(result);
 
                 if (isRetry) {
-                    test.log(Status.WARNING, "Test Failed, Retrying... Error: " + result.getThrowable().getMessage());
+                    ExtentReportManager.log(reportNode, Status.WARNING,
+                            "Test Failed, Retrying... Error: " + result.getThrowable().getMessage());
                 } else {
                     captureScreenshot(result.getName());
-                    test.log(Status.FAIL, "Test Failed: " + result.getThrowable());
+                    ExtentReportManager.log(reportNode, Status.FAIL, "Test Failed: " + result.getThrowable());
                 }
             } else if (result.getStatus() == ITestResult.SUCCESS) {
-                test.log(Status.PASS, "Test Passed");
+                ExtentReportManager.log(reportNode, Status.PASS, "Test Passed");
             } else {
-                test.log(Status.SKIP, "Test Skipped");
+                ExtentReportManager.log(reportNode, Status.SKIP, "Test Skipped");
             }
+            if (stepRetries.getRecoveries() > 0) {
+                ExtentReportManager.log(reportNode, Status.INFO, String.format(
+                        "In-session step retries: %d action(s) recovered with %d retr%s, ~%d ms saved vs. full test retries",
+                        stepRetries.getRecoveries(), stepRetries.getRetries(),
+                        stepRetries.getRetries() == 1 ? "y" : "ies", stepRetries.getSavedMillis()));
+            }
+            if (timing != null) {
+                logCommandTiming(reportNode, timing);
+            }
+            ExtentReportManager.testFinished();
         }
 
-        if (driver != null) {
-            driver.quit();
+        NetworkMonitor monitor = networkMonitor.get();
+        if (monitor != null) {
+            monitor.close();
         }
+        networkMonitor.remove();
+
+        WebDriver webDriver = session.get();
+        if (webDriver != null) {
+            if (TestConfig.isDriverPoolEnabled()) {
+                DriverPool.release(webDriver);
+            } else {
+                webDriver.quit();
+            }
+        }
+        session.remove();
+        driver.remove();
+        commandTimer.remove();
+        test.remove();
+        dashboardPage.remove();
     }
 
-    @AfterSuite
+    @AfterSuite(alwaysRun = true)
     public void tearDownSuite() {
+        DriverPool.shutdown();
+        baselines.clear();
+        DashboardFixtureServer.stopShared();
+        CommandMetrics.write();
+        ExcelUtil.flushStatusUpdates();
+        LaunchMetrics.summaries().forEach((profile, summary) ->
+                ExtentReportManager.setSystemInfo("Browser launch (" + profile + ")", summary));
+        if (StepRetry.getSuiteRecoveries() > 0) {
+            ExtentReportManager.setSystemInfo("Step retries", StepRetry.getSuiteRecoveries() + " recovered in-session, ~"
+                    + StepRetry.getSuiteSavedMillis() / 1000 + " s saved");
+        }
         ExtentReportManager.flush();
     }
 
+    // Resets the pooled page in place when it was loaded for the same class (per-class) or for any
+    // earlier test (per-session); reloads it when the scope changed or the reset cannot be verified
+    private void prepareReusedPage(ReportNode reportNode) {
+        WebDriver raw = session.get();
+        String scope = "per-class".equals(TestConfig.getNavigationMode()) ? getClass().getName() : "session";
+        String previous = DriverPool.swapPageScope(raw, scope);
+        // Reset actions are not part of the test, so they run on a page object without a report node
+        DashboardPage page = new DashboardPage(getDriver());
+        PageState baseline = baselines.get(raw);
+        if (previous != null && previous.equals(scope) && baseline != null) {
+            long start = System.nanoTime();
+            if (page.resetState(baseline)) {
+                ExtentReportManager.log(reportNode, Status.INFO, "Reused dashboard page, state reset in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return;
+            }
+            ExtentReportManager.log(reportNode, Status.INFO, "In-page reset did not restore the baseline, reloading");
+        }
+        if (previous != null) {
+            getDriver().get(TestConfig.getAppUrl());
+        }
+        baselines.put(raw, page.captureState());
+    }
+
+    private NetworkMonitor attachNetworkMonitor(ReportNode reportNode) {
+        try {
+            NetworkMonitor monitor = NetworkMonitor.attach(session.get());
+            if (monitor == null) {
+                ExtentReportManager.log(reportNode, Status.WARNING,
+                        "Network waits unavailable: driver has no DevTools support");
+            }
+            return monitor;
+        } catch (Exception e) {
+            ExtentReportManager.log(reportNode, Status.WARNING, "Network waits unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
     private void captureScreenshot(String testName) {
         if (!TestConfig.isScreenshotOnFailureEnabled()) {
             return;
         }
 
+        ReportNode reportNode = getTest();
         try {
-            TakesScreenshot ts = (TakesScreenshot) driver;
-            String base64Screenshot = ts.getScreenshotAs(OutputType.BASE64);
+            // Only the capture needs the browser; encoding and the file write happen on the report writer
+            byte[] png = ((TakesScreenshot) getDriver()).getScreenshotAs(OutputType.BYTES);
+            ExtentReportManager.submit(reportNode, node -> {
+                try {
+                    String path = ScreenshotStore.save(png, testName);
+                    // Untitled: ExtentReports 5.1.1 cannot read a titled screenshot back from the JSON
+                    // archive, which would break --merge-reports
+                    node.addScreenCaptureFromPath(path);
+                    node.log(Status.INFO, "Failure screenshot captured for " + testName);
+                } catch (Exception e) {
+                    node.log(Status.WARNING, "Failed to save screenshot: " + e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            ExtentReportManager.log(reportNode, Status.WARNING, "Failed to capture screenshot: " + e.getMessage());
+        }
+    }
 
-            // Embed screenshot in ExtentReport
-            test.addScreenCaptureFromBase64String(base64Screenshot, "Failure Screenshot - " + testName);
-            test.log(Status.INFO, "Screenshot captured for failed test");
+    private CommandTimer.TestTiming finishCommandTiming(ITestResult result) {
+        CommandTimer timer = commandTimer.get();
+        if (timer == null) {
+            return null;
+        }
+        String testName = result.getMethod().getQualifiedName();
+        if (result.getParameters().length > 0) {
+            testName += Arrays.toString(result.getParameters());
+        }
+        String status = result.getStatus() == ITestResult.SUCCESS ? "PASS"
+                : result.getStatus() == ITestResult.FAILURE ? "FAIL" : "SKIP";
+        CommandTimer.TestTiming timing = timer.finish(testName, status);
+        CommandMetrics.record(timing);
+        return timing;
+    }
 
-        } catch (Exception e) {
-            test.log(Status.WARNING, "Failed to capture screenshot: " + e.getMessage());
+    private void logCommandTiming(ReportNode reportNode, CommandTimer.TestTiming timing) {
+        if (timing.getCommands().isEmpty()) {
+            return;
+        }
+        ExtentReportManager.log(reportNode, Status.INFO, String.format(Locale.ROOT,
+                "WebDriver time: %.0f ms of %d ms (%.0f ms waiting in the browser)",
+                timing.getCommandMillis(), timing.getDurationMillis(), timing.getWaitMillis()));
+
+        List<CommandTimer.StepTiming> steps = timing.getSteps();
+        String[][] stepRows = new String[steps.size() + 1][];
+        stepRows[0] = new String[] { "Step", "Duration (ms)", "Commands", "WebDriver (ms)" };
+        for (int i = 0; i < steps.size(); i++) {
+            CommandTimer.StepTiming step = steps.get(i);
+            stepRows[i + 1] = new String[] { step.getName(), String.valueOf(step.getDurationMillis()),
+                    String.valueOf(step.getCommandCount()), format(step.getCommandMillis()) };
+        }
+        ExtentReportManager.log(reportNode, Status.INFO, MarkupHelper.createTable(stepRows));
+
+        List<CommandTimer.CommandStats> commands = timing.getCommands();
+        String[][] commandRows = new String[commands.size() + 1][];
+        commandRows[0] = new String[] { "Command", "Count", "p50 (ms)", "p95 (ms)", "Max (ms)", "Total (ms)" };
+        for (int i = 0; i < commands.size(); i++) {
+            CommandTimer.CommandStats stats = commands.get(i);
+            commandRows[i + 1] = new String[] { stats.getCommand(), String.valueOf(stats.getCount()),
+                    format(stats.getP50Millis()), format(stats.getP95Millis()), format(stats.getMaxMillis()),
+                    format(stats.getTotalMillis()) };
         }
+        ExtentReportManager.log(reportNode, Status.INFO, MarkupHelper.createTable(commandRows));
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.1f", millis);
     }
 
     protected void logStep(String step) {
-        test.log(Status.INFO, "<b>" + step + "</b>");
+        CommandTimer timer = commandTimer.get();
+        if (timer != null) {
+            timer.startStep(step);
+        }
+        ExtentReportManager.log(getTest(), Status.INFO, "<b>" + step + "</b>");
     }
 
+    // Reports the elapsed time of the current step when command timing is on
     protected void logPass(String message) {
-        test.log(Status.PASS, "✓ " + message);
+        CommandTimer timer = commandTimer.get();
+        if (timer != null) {
+            message += String.format(" <i>(%d ms, %d commands)</i>", timer.getStepElapsedMillis(),
+                    timer.getStepCommandCount());
+        }
+        ExtentReportManager.log(getTest(), Status.PASS, "✓ " + message);
     }
 }
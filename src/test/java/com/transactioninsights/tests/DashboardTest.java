@@ -1,23 +1,29 @@
 package com.transactioninsights.tests;
 
+import com.transactioninsights.config.TestConfig;
+import com.transactioninsights.pages.ConsistencyOracle;
+import com.transactioninsights.pages.TableOracle;
+import com.transactioninsights.utils.RefreshProbe;
 import com.transactioninsights.utils.TestRetryAnalyzer;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
+
 public class DashboardTest extends BaseTest {
 
     @Test(description = "TC_001: Verify dashboard loads with title and transaction table", retryAnalyzer = TestRetryAnalyzer.class)
     public void testDashboardLoadsWithTitleAndTable() {
         logStep("Step 1: Verify dashboard loads");
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard did not load");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard did not load");
         logPass("Dashboard loaded successfully");
 
         logStep("Step 2: Verify dashboard title is visible");
-        Assert.assertTrue(dashboardPage.hasTitle(), "Title not found");
+        Assert.assertTrue(getDashboardPage().hasTitle(), "Title not found");
         logPass("Dashboard title is visible");
 
         logStep("Step 3: Verify transaction table has data");
-        int rowCount = dashboardPage.getRowCount();
+        int rowCount = getDashboardPage().getRowCount();
         Assert.assertTrue(rowCount > 0, "No rows in table");
         logPass("Transaction table displayed with " + rowCount + " rows");
     }
@@ -25,16 +31,16 @@ public class DashboardTest extends BaseTest {
     @Test(description = "TC_002: Verify table columns are displayed correctly", retryAnalyzer = TestRetryAnalyzer.class)
     public void testTableColumnsDisplayed() {
         logStep("Step 1: Verify dashboard is loaded");
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard not loaded");
         logPass("Dashboard is loaded");
 
         logStep("Step 2: Verify table headers exist");
-        int headerCount = dashboardPage.getTableHeaderCount();
+        int headerCount = getDashboardPage().getTableHeaderCount();
         Assert.assertTrue(headerCount > 0, "No headers found");
         logPass("Found " + headerCount + " table headers");
 
         logStep("Step 3: Verify expected columns are present");
-        Assert.assertTrue(dashboardPage.verifyTableColumnsExist(
+        Assert.assertTrue(getDashboardPage().verifyTableColumnsExist(
                 "Name", "Date", "Total", "Successful", "Pending", "Errored", "Status"),
                 "Not all expected columns found");
         logPass("All expected columns verified");
@@ -43,115 +49,155 @@ public class DashboardTest extends BaseTest {
     @Test(description = "TC_003: Verify data consistency in transaction table", retryAnalyzer = TestRetryAnalyzer.class)
     public void testDataConsistency() {
         logStep("Step 1: Verify dashboard is loaded");
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard not loaded");
         logPass("Dashboard is loaded");
 
-        logStep("Step 2: Verify table has data");
-        int rowCount = dashboardPage.getRowCount();
-        Assert.assertTrue(rowCount > 0, "No data to verify");
-        logPass("Table has " + rowCount + " rows for consistency verification");
+        logStep("Step 2: Capture the table and check every row reconciles");
+        ConsistencyOracle.Report report = getDashboardPage().verifyConsistency();
+        Assert.assertTrue(report.getRowCount() > 0, "No data to verify");
+        Assert.assertTrue(report.isConsistent(), report.describe(20));
+        logPass(report.summary());
     }
 
     @Test(description = "TC_004: Verify search functionality filters table correctly", retryAnalyzer = TestRetryAnalyzer.class, enabled = true)
     public void testSearchFunctionality() {
-        logStep("Step 1: Get initial row count");
-        int initialRows = dashboardPage.getRowCount();
-        logPass("Initial row count: " + initialRows);
+        logStep("Step 1: Capture the table before searching");
+        TableOracle oracle = getDashboardPage().captureOracle();
+        logPass("Captured " + oracle.getRowCount() + " rows");
 
         logStep("Step 2: Search for 'Arjun'");
-        dashboardPage.searchTransaction("Arjun");
+        getDashboardPage().searchTransaction("Arjun");
         logPass("Search query entered");
 
-        logStep("Step 3: Verify filtered results");
-        int filteredRows = dashboardPage.getRowCount();
-        Assert.assertTrue(filteredRows <= initialRows, "Filtered rows should be less than or equal to initial");
-        logPass("Table filtered successfully (" + filteredRows + " rows)");
+        logStep("Step 3: Verify the table shows exactly the matching rows");
+        TableOracle.Result result = getDashboardPage().verifyTable(oracle.search("Arjun"));
+        Assert.assertTrue(result.matches(), result.describe());
+        logPass(result.summary());
     }
 
     @Test(description = "TC_005: Verify date range filter functionality")
     public void testDateRangeFilter() {
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard not loaded");
     }
 
-    @Test(description = "TC_006: Verify column filter functionality")
+    @Test(description = "TC_006: Verify column filter functionality", retryAnalyzer = TestRetryAnalyzer.class)
     public void testColumnFilters() {
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        verifyColumnFilter("Name", "Sharma");
     }
 
-    @Test(description = "TC_007: Verify Status column filter")
+    @Test(description = "TC_007: Verify Status column filter", retryAnalyzer = TestRetryAnalyzer.class)
     public void testStatusColumnFilter() {
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        verifyColumnFilter("Status", "Failed");
+    }
+
+    private void verifyColumnFilter(String columnName, String value) {
+        logStep("Step 1: Capture the table before filtering");
+        TableOracle oracle = getDashboardPage().captureOracle();
+        int column = getDashboardPage().getColumnIndex(columnName);
+        logPass("Captured " + oracle.getRowCount() + " rows");
+
+        logStep("Step 2: Filter " + columnName + " by '" + value + "'");
+        getDashboardPage().enterColumnFilter(column, value);
+        logPass("Column filter entered");
+
+        logStep("Step 3: Verify the table shows exactly the matching rows");
+        TableOracle.Result result = getDashboardPage().verifyTable(oracle.filter(column, value));
+        Assert.assertTrue(result.matches(), result.describe());
+        logPass(result.summary());
     }
 
     @Test(description = "TC_008: Verify filter reset functionality", retryAnalyzer = TestRetryAnalyzer.class)
     public void testFilterReset() {
         logStep("Step 1: Apply search filter");
-        dashboardPage.searchTransaction("Test");
+        getDashboardPage().searchTransaction("Test");
         logPass("Search filter applied");
 
         logStep("Step 2: Clear search filter");
-        dashboardPage.clearSearch();
+        getDashboardPage().clearSearch();
         logPass("Search filter cleared");
 
         logStep("Step 3: Verify table resets to show all transactions");
-        int rowCount = dashboardPage.getRowCount();
+        int rowCount = getDashboardPage().getRowCount();
         Assert.assertTrue(rowCount > 0, "Table should have rows after clearing filter");
         logPass("Table reset successfully (" + rowCount + " rows)");
     }
 
     @Test(description = "TC_009: Verify clicking Successful link opens modal", retryAnalyzer = TestRetryAnalyzer.class)
     public void testSuccessfulTransactionsModal() {
-        logStep("Step 1: Click on Successful transactions link");
-        dashboardPage.sortColumn("Successful", true);
-        dashboardPage.clickFirstSuccessfulLink();
+        logStep("Step 1: Sort Successful descending");
+        TableOracle oracle = getDashboardPage().captureOracle();
+        getDashboardPage().sortColumn("Successful", true);
+        TableOracle.Result sorted = getDashboardPage().verifyTable(oracle.sort("Successful", true));
+        Assert.assertTrue(sorted.matches(), sorted.describe());
+        logPass(sorted.summary());
+
+        logStep("Step 2: Click on Successful transactions link");
+        getDashboardPage().clickFirstSuccessfulLink();
         logPass("Clicked Successful link");
 
-        logStep("Step 2: Verify modal opens");
-        Assert.assertTrue(dashboardPage.isModalDisplayed(), "Modal did not open");
+        logStep("Step 3: Verify modal opens");
+        Assert.assertTrue(getDashboardPage().isModalDisplayed(), "Modal did not open");
         logPass("Modal opened with Successful Transactions details");
     }
 
     @Test(description = "TC_010: Verify clicking Errored link opens modal", retryAnalyzer = TestRetryAnalyzer.class)
     public void testErroredTransactionsModal() {
-        logStep("Step 1: Click on Errored transactions link");
-        dashboardPage.sortColumn("Errored", true);
-        dashboardPage.clickFirstErroredLink();
+        logStep("Step 1: Sort Errored descending");
+        TableOracle oracle = getDashboardPage().captureOracle();
+        getDashboardPage().sortColumn("Errored", true);
+        TableOracle.Result sorted = getDashboardPage().verifyTable(oracle.sort("Errored", true));
+        Assert.assertTrue(sorted.matches(), sorted.describe());
+        logPass(sorted.summary());
+
+        logStep("Step 2: Click on Errored transactions link");
+        getDashboardPage().clickFirstErroredLink();
         logPass("Clicked Errored link");
 
-        logStep("Step 2: Verify modal opens");
-        Assert.assertTrue(dashboardPage.isModalDisplayed(), "Modal did not open");
+        logStep("Step 3: Verify modal opens");
+        Assert.assertTrue(getDashboardPage().isModalDisplayed(), "Modal did not open");
         logPass("Modal opened with Errored Transactions details");
     }
 
     @Test(description = "TC_011: Verify modal close functionality", retryAnalyzer = TestRetryAnalyzer.class)
     public void testModalClose() {
         logStep("Step 1: Open modal");
-        dashboardPage.clickFirstSuccessfulLink();
-        Assert.assertTrue(dashboardPage.isModalDisplayed(), "Modal not displayed");
+        getDashboardPage().clickFirstSuccessfulLink();
+        Assert.assertTrue(getDashboardPage().isModalDisplayed(), "Modal not displayed");
         logPass("Modal opened");
 
         logStep("Step 2: Close modal");
-        dashboardPage.closeModal();
+        getDashboardPage().closeModal();
         logPass("Modal closed");
 
         logStep("Step 3: Verify dashboard is visible");
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not visible after closing modal");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard not visible after closing modal");
         logPass("User returned to dashboard");
     }
 
     @Test(description = "TC_012: Verify auto-refresh toggle functionality", retryAnalyzer = TestRetryAnalyzer.class)
     public void testAutoRefreshToggle() {
         logStep("Step 1: Verify dashboard is loaded");
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard not loaded");
         logPass("Dashboard is loaded");
 
         logStep("Step 2: Toggle auto-refresh");
-        dashboardPage.toggleAutoRefresh();
-        logPass("Auto-refresh toggled");
+        boolean wasOn = getDashboardPage().captureState().isAutoRefresh();
+        getDashboardPage().toggleAutoRefresh();
+        Assert.assertNotEquals(getDashboardPage().captureState().isAutoRefresh(), wasOn,
+                "Auto-refresh switch did not change state");
+        logPass("Auto-refresh toggled " + (wasOn ? "off" : "on"));
+
+        if (TestConfig.isRefreshProbeEnabled()) {
+            logStep("Step 3: Probe auto-refresh rendering for " + TestConfig.getRefreshProbeWindowMillis() + " ms");
+            RefreshProbe.Report report = getDashboardPage().probeAutoRefresh(createRefreshProbe(),
+                    Duration.ofMillis(TestConfig.getRefreshProbeWindowMillis()));
+            Assert.assertTrue(report.isWithinBudget(), report.describe());
+            logPass(report.summary());
+        }
     }
 
     @Test(description = "TC_013: Verify row action menu functionality")
     public void testRowActionMenu() {
-        Assert.assertTrue(dashboardPage.isDashboardLoaded(), "Dashboard not loaded");
+        Assert.assertTrue(getDashboardPage().isDashboardLoaded(), "Dashboard not loaded");
     }
 }
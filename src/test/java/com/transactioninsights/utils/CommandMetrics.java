@@ -0,0 +1,115 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Suite-wide collection of per-test command timings, written next to the HTML report as
+// command-metrics.json (tests > steps > commands) and command-metrics.csv (one row per test, step and command).
+public class CommandMetrics {
+
+    public static final String JSON_FILE = "command-metrics.json";
+    public static final String CSV_FILE = "command-metrics.csv";
+
+    private static final Queue<CommandTimer.TestTiming> tests = new ConcurrentLinkedQueue<>();
+
+    private CommandMetrics() {
+    }
+
+    public static void record(CommandTimer.TestTiming timing) {
+        tests.add(timing);
+    }
+
+    public static void write() {
+        if (tests.isEmpty()) {
+            return;
+        }
+        Path reportDir = Paths.get(System.getProperty("user.dir"), TestConfig.getReportPath()).getParent();
+        try {
+            Files.createDirectories(reportDir);
+            writeJson(reportDir.resolve(JSON_FILE));
+            writeCsv(reportDir.resolve(CSV_FILE));
+        } catch (IOException e) {
+            System.err.println("Failed to write command metrics: " + e.getMessage());
+        }
+    }
+
+    private static void writeJson(Path file) throws IOException {
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (CommandTimer.TestTiming test : tests) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("test", test.getTestName());
+            entry.put("status", test.getStatus());
+            entry.put("durationMs", test.getDurationMillis());
+            entry.put("commandMs", round(test.getCommandMillis()));
+            entry.put("waitMs", round(test.getWaitMillis()));
+            List<Map<String, Object>> steps = new ArrayList<>();
+            for (CommandTimer.StepTiming step : test.getSteps()) {
+                Map<String, Object> stepEntry = new LinkedHashMap<>();
+                stepEntry.put("name", step.getName());
+                stepEntry.put("durationMs", step.getDurationMillis());
+                stepEntry.put("commands", toJson(step.getCommands()));
+                steps.add(stepEntry);
+            }
+            entry.put("steps", steps);
+            entry.put("commands", toJson(test.getCommands()));
+            json.add(entry);
+        }
+        Files.writeString(file, new Json().toJson(json), StandardCharsets.UTF_8);
+    }
+
+    private static List<Map<String, Object>> toJson(List<CommandTimer.CommandStats> commands) {
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (CommandTimer.CommandStats stats : commands) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("command", stats.getCommand());
+            entry.put("count", stats.getCount());
+            entry.put("p50Ms", round(stats.getP50Millis()));
+            entry.put("p95Ms", round(stats.getP95Millis()));
+            entry.put("maxMs", round(stats.getMaxMillis()));
+            entry.put("totalMs", round(stats.getTotalMillis()));
+            json.add(entry);
+        }
+        return json;
+    }
+
+    private static void writeCsv(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("test,status,step,step_ms,command,count,p50_ms,p95_ms,max_ms,total_ms\n");
+            for (CommandTimer.TestTiming test : tests) {
+                for (CommandTimer.StepTiming step : test.getSteps()) {
+                    for (CommandTimer.CommandStats stats : step.getCommands()) {
+                        out.write(String.format(Locale.ROOT, "%s,%s,%s,%d,%s,%d,%.3f,%.3f,%.3f,%.3f%n",
+                                csv(test.getTestName()), test.getStatus(), csv(step.getName()),
+                                step.getDurationMillis(), stats.getCommand(), stats.getCount(), stats.getP50Millis(),
+                                stats.getP95Millis(), stats.getMaxMillis(), stats.getTotalMillis()));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,255 @@
+package com.transactioninsights.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Times every WebDriver command issued through a decorated driver and attributes it to the
+// test step that was current when the command ran. One instance per test, used from one thread.
+public class CommandTimer implements WebDriverListener {
+
+    // Accessors that only return local helper objects; they never reach the browser
+    private static final Set<String> LOCAL_CALLS = Set.of("manage", "switchTo", "navigate", "timeouts", "window",
+            "getWrappedDriver", "getWrappedElement", "hashCode", "equals", "toString");
+
+    // In-browser waits (DomWait) run as async scripts, so their time is reported as wait time
+    public static final String WAIT_COMMAND = "JavascriptExecutor.executeAsyncScript";
+
+    public static final String SETUP_STEP = "Setup";
+
+    private final List<Sample> samples = new ArrayList<>();
+    private final List<StepTiming> steps = new ArrayList<>();
+    private final Deque<Long> started = new ArrayDeque<>();
+    private String currentStep = SETUP_STEP;
+    private long stepStartNanos = System.nanoTime();
+    private int stepFirstSample;
+
+    public WebDriver decorate(WebDriver driver) {
+        return new EventFiringDecorator<>(this).decorate(driver);
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (isTimed(method)) {
+            started.push(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(method);
+    }
+
+    private void record(Method method) {
+        if (isTimed(method) && !started.isEmpty()) {
+            long nanos = System.nanoTime() - started.pop();
+            samples.add(new Sample(method.getDeclaringClass().getSimpleName() + "." + method.getName(), nanos));
+        }
+    }
+
+    private static boolean isTimed(Method method) {
+        return !LOCAL_CALLS.contains(method.getName()) && method.getDeclaringClass() != Object.class;
+    }
+
+    // Closes the current step and starts a new one; returns the timing of the step just closed
+    public StepTiming startStep(String name) {
+        StepTiming closed = closeStep();
+        currentStep = name;
+        return closed;
+    }
+
+    public long getStepElapsedMillis() {
+        return (System.nanoTime() - stepStartNanos) / 1_000_000;
+    }
+
+    public int getStepCommandCount() {
+        return samples.size() - stepFirstSample;
+    }
+
+    // Closes the last step and summarises the whole test
+    public TestTiming finish(String testName, String status) {
+        closeStep();
+        return new TestTiming(testName, status, Collections.unmodifiableList(new ArrayList<>(steps)),
+                summarize(samples));
+    }
+
+    private StepTiming closeStep() {
+        long now = System.nanoTime();
+        List<Sample> stepSamples = samples.subList(stepFirstSample, samples.size());
+        StepTiming step = new StepTiming(currentStep, (now - stepStartNanos) / 1_000_000,
+                summarize(stepSamples));
+        // An empty setup phase (e.g. a pooled session with nothing to do) is not worth reporting
+        if (!SETUP_STEP.equals(currentStep) || !stepSamples.isEmpty()) {
+            steps.add(step);
+        }
+        stepStartNanos = now;
+        stepFirstSample = samples.size();
+        return step;
+    }
+
+    private static List<CommandStats> summarize(List<Sample> samples) {
+        Map<String, List<Long>> byCommand = new LinkedHashMap<>();
+        for (Sample sample : samples) {
+            byCommand.computeIfAbsent(sample.command, key -> new ArrayList<>()).add(sample.nanos);
+        }
+        List<CommandStats> stats = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : byCommand.entrySet()) {
+            long[] nanos = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            stats.add(new CommandStats(entry.getKey(), nanos));
+        }
+        stats.sort((a, b) -> Double.compare(b.getTotalMillis(), a.getTotalMillis()));
+        return Collections.unmodifiableList(stats);
+    }
+
+    private static class Sample {
+        final String command;
+        final long nanos;
+
+        Sample(String command, long nanos) {
+            this.command = command;
+            this.nanos = nanos;
+        }
+    }
+
+    public static class CommandStats {
+        private final String command;
+        private final int count;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double maxMillis;
+        private final double totalMillis;
+
+        CommandStats(String command, long[] sortedNanos) {
+            this.command = command;
+            this.count = sortedNanos.length;
+            this.p50Millis = percentile(sortedNanos, 50);
+            this.p95Millis = percentile(sortedNanos, 95);
+            this.maxMillis = sortedNanos[sortedNanos.length - 1] / 1e6;
+            this.totalMillis = Arrays.stream(sortedNanos).sum() / 1e6;
+        }
+
+        // Nearest-rank percentile
+        private static double percentile(long[] sortedNanos, int percent) {
+            int rank = (int) Math.ceil(percent / 100.0 * sortedNanos.length);
+            return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public double getTotalMillis() {
+            return totalMillis;
+        }
+    }
+
+    public static class StepTiming {
+        private final String name;
+        private final long durationMillis;
+        private final List<CommandStats> commands;
+
+        StepTiming(String name, long durationMillis, List<CommandStats> commands) {
+            this.name = name;
+            this.durationMillis = durationMillis;
+            this.commands = commands;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public List<CommandStats> getCommands() {
+            return commands;
+        }
+
+        public int getCommandCount() {
+            return commands.stream().mapToInt(CommandStats::getCount).sum();
+        }
+
+        public double getCommandMillis() {
+            return commands.stream().mapToDouble(CommandStats::getTotalMillis).sum();
+        }
+    }
+
+    public static class TestTiming {
+        private final String testName;
+        private final String status;
+        private final List<StepTiming> steps;
+        private final List<CommandStats> commands;
+
+        TestTiming(String testName, String status, List<StepTiming> steps, List<CommandStats> commands) {
+            this.testName = testName;
+            this.status = status;
+            this.steps = steps;
+            this.commands = commands;
+        }
+
+        public String getTestName() {
+            return testName;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public List<StepTiming> getSteps() {
+            return steps;
+        }
+
+        public List<CommandStats> getCommands() {
+            return commands;
+        }
+
+        public long getDurationMillis() {
+            return steps.stream().mapToLong(StepTiming::getDurationMillis).sum();
+        }
+
+        public double getCommandMillis() {
+            return commands.stream().mapToDouble(CommandStats::getTotalMillis).sum();
+        }
+
+        public double getWaitMillis() {
+            return commands.stream()
+                    .filter(stats -> WAIT_COMMAND.equals(stats.getCommand()))
+                    .mapToDouble(CommandStats::getTotalMillis)
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.By;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Find-filter-act in one round trip: a script resolves the locator and picks the first visible,
+// enabled and unobscured match (waiting for one through a MutationObserver, like DomWait), instead of
+// fetching every match and asking isDisplayed/isEnabled per element. Clicks are still native
+// WebDriver clicks on the returned element, so each action costs two round trips whatever the row count.
+public class DomAction {
+
+    public static final String OK = "ok";
+    public static final String NOT_FOUND = "not-found";
+    public static final String HIDDEN = "hidden";
+    public static final String DISABLED = "disabled";
+    public static final String OBSCURED = "obscured";
+
+    private static final String FIND_SCRIPT =
+            "var using = arguments[0], value = arguments[1], timeout = arguments[2];"
+            + "var done = arguments[arguments.length - 1];"
+            + DomWait.LOCATOR_HELPERS
+            + "var enabled = function (el) {"
+            + "  return !el.disabled && el.getAttribute('aria-disabled') !== 'true' && !el.closest('fieldset:disabled');"
+            + "};"
+            + "var onScreen = function (rect) {"
+            + "  return rect.top >= 0 && rect.left >= 0 && rect.bottom <= window.innerHeight && rect.right <= window.innerWidth;"
+            + "};"
+            // What a click at the element's centre would hit, unless that is the element or a child of it
+            + "var cover = function (el) {"
+            + "  var rect = el.getBoundingClientRect();"
+            + "  var top = document.elementFromPoint(rect.left + rect.width / 2, rect.top + rect.height / 2);"
+            + "  return top === el || el.contains(top) ? null : top;"
+            + "};"
+            + "var describe = function (el) {"
+            + "  if (!el) { return 'nothing'; }"
+            + "  return el.tagName.toLowerCase() + (el.id ? '#' + el.id : '')"
+            + "      + (typeof el.className === 'string' && el.className ? '.' + el.className.trim().split(/\\s+/).join('.') : '');"
+            + "};"
+            // Off-screen candidates are remembered rather than scrolled to, so evaluating never scrolls
+            + "var offScreen = null;"
+            + "var evaluate = function () {"
+            + "  var els = findAll(), shown = 0, usable = 0, covering = null, outside = 0;"
+            + "  offScreen = null;"
+            + "  for (var i = 0; i < els.length; i++) {"
+            + "    if (!visible(els[i])) { continue; }"
+            + "    shown++;"
+            + "    if (!enabled(els[i])) { continue; }"
+            + "    usable++;"
+            + "    if (!onScreen(els[i].getBoundingClientRect())) { outside++; offScreen = offScreen || els[i]; continue; }"
+            + "    var top = cover(els[i]);"
+            + "    if (top === null) { return {code: 'ok', element: els[i], matches: els.length}; }"
+            + "    covering = covering || top;"
+            + "  }"
+            + "  if (els.length === 0) { return {code: 'not-found', matches: 0}; }"
+            + "  if (shown === 0) { return {code: 'hidden', matches: els.length}; }"
+            + "  if (usable === 0) { return {code: 'disabled', matches: els.length}; }"
+            + "  if (usable === outside) { return {code: 'obscured', matches: els.length, detail: 'outside the viewport'}; }"
+            + "  return {code: 'obscured', matches: els.length, detail: 'covered by ' + describe(covering)};"
+            + "};"
+            // Brings the first off-screen candidate into view, at most once per call
+            + "var scrolled = false;"
+            + "var reveal = function () {"
+            + "  if (scrolled || latest.code !== 'obscured' || !offScreen) { return; }"
+            + "  scrolled = true;"
+            + "  offScreen.scrollIntoView({block: 'center', inline: 'center'});"
+            + "  latest = evaluate();"
+            + "};"
+            + "var latest = evaluate();"
+            + "reveal();"
+            + "if (latest.code === 'ok' || timeout <= 0) { done(latest); return; }"
+            + "var finished = false, observer, timer;"
+            + "var finish = function () {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  observer.disconnect();"
+            + "  clearTimeout(timer);"
+            + "  done(latest);"
+            + "};"
+            + "var check = function () {"
+            + "  latest = evaluate();"
+            + "  reveal();"
+            + "  if (latest.code === 'ok') { finish(); }"
+            + "};"
+            + "observer = new MutationObserver(check);"
+            + "observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "timer = setTimeout(finish, timeout);"
+            // Overlays and fades can clear through CSS transitions that never mutate the DOM
+            + "var frame = function () { if (!finished) { check(); window.requestAnimationFrame(frame); } };"
+            + "window.requestAnimationFrame(frame);";
+
+    // Sets every match's value through the native setter and fires input and change, as typing would
+    private static final String CLEAR_SCRIPT =
+            "var using = arguments[0], value = arguments[1];"
+            + DomWait.LOCATOR_HELPERS
+            + "var cleared = 0;"
+            + "findAll().forEach(function (el) {"
+            + "  var text = el instanceof HTMLInputElement || el instanceof HTMLTextAreaElement;"
+            + "  if (!text || el.value === '' || el.disabled || el.readOnly) { return; }"
+            + "  var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;"
+            + "  Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, '');"
+            + "  el.dispatchEvent(new Event('input', {bubbles: true}));"
+            + "  el.dispatchEvent(new Event('change', {bubbles: true}));"
+            + "  cleared++;"
+            + "});"
+            + "return cleared;";
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    public DomAction(WebDriver driver) {
+        this(driver, Duration.ofSeconds(TestConfig.getExplicitWait()));
+    }
+
+    public DomAction(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    // First usable match, waiting up to the default timeout for one
+    public Result find(By locator) {
+        return find(locator, timeout);
+    }
+
+    // First usable match; Duration.ZERO checks once without waiting
+    public Result find(By locator, Duration within) {
+        String[] script = DomWait.scriptLocator(locator);
+        long deadline = System.nanoTime() + within.toNanos();
+        long slice = Math.max(1, TestConfig.getScriptTimeout() - 1) * 1000L;
+        Result result;
+        do {
+            long remaining = Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+            result = new Result(locator, (Map<?, ?>) ((JavascriptExecutor) driver).executeAsyncScript(FIND_SCRIPT,
+                    script[0], script[1], Math.min(remaining, slice)));
+        } while (!result.isOk() && System.nanoTime() < deadline);
+        return result;
+    }
+
+    // Clicks the first usable match, or throws the exception a native click on the best candidate would
+    public WebElement click(By locator) {
+        return click(locator, timeout);
+    }
+
+    public WebElement click(By locator, Duration within) {
+        WebElement element = find(locator, within).orThrow();
+        element.click();
+        return element;
+    }
+
+    // Empties every enabled, editable match in one script; returns how many had a value
+    public int clearAll(By locator) {
+        String[] script = DomWait.scriptLocator(locator);
+        return ((Number) ((JavascriptExecutor) driver).executeScript(CLEAR_SCRIPT, script[0], script[1])).intValue();
+    }
+
+    public static class Result {
+        private final By locator;
+        private final String code;
+        private final int matches;
+        private final WebElement element;
+        private final String detail;
+
+        private Result(By locator, Map<?, ?> values) {
+            this.locator = locator;
+            this.code = String.valueOf(values.get("code"));
+            this.matches = ((Number) values.get("matches")).intValue();
+            this.element = (WebElement) values.get("element");
+            Object detail = values.get("detail");
+            this.detail = detail == null ? "" : detail.toString();
+        }
+
+        public boolean isOk() {
+            return OK.equals(code);
+        }
+
+        // One of OK, NOT_FOUND, HIDDEN, DISABLED or OBSCURED
+        public String getCode() {
+            return code;
+        }
+
+        public int getMatches() {
+            return matches;
+        }
+
+        // The usable element, or null unless the code is OK
+        public WebElement getElement() {
+            return element;
+        }
+
+        // Maps each code to the exception WebDriver itself would raise, so StepRetry treats them alike
+        public WebElement orThrow() {
+            switch (code) {
+                case OK:
+                    return element;
+                case NOT_FOUND:
+                    throw new TimeoutException("No element matches " + locator);
+                case OBSCURED:
+                    throw new ElementClickInterceptedException(this.toString());
+                default:
+                    throw new ElementNotInteractableException(this.toString());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return code + ": " + matches + " match(es) for " + locator + (detail.isEmpty() ? "" : ", " + detail);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Waits that resolve inside the browser: a MutationObserver re-evaluates the condition on every
+// DOM change and executeAsyncScript returns the moment it holds, instead of polling from the client.
+public class DomWait {
+
+    // findAll() over the locator in the script's `using` and `value` variables, and visible(el); the
+    // prefix of every script here and in DomAction that resolves a locator in the page
+    static final String LOCATOR_HELPERS =
+            "var findAll = function () {"
+            + "  if (using === 'xpath') {"
+            + "    var result = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "    var nodes = [];"
+            + "    for (var i = 0; i < result.snapshotLength; i++) { nodes.push(result.snapshotItem(i)); }"
+            + "    return nodes;"
+            + "  }"
+            + "  return Array.prototype.slice.call(document.querySelectorAll(value));"
+            + "};"
+            + "var visible = function (el) {"
+            + "  var style = window.getComputedStyle(el);"
+            + "  if (style.display === 'none' || style.visibility === 'hidden' || parseFloat(style.opacity) === 0) { return false; }"
+            + "  var rect = el.getBoundingClientRect();"
+            + "  return rect.width > 0 && rect.height > 0;"
+            + "};";
+
+    private static final String WAIT_SCRIPT =
+            "var kind = arguments[0], using = arguments[1], value = arguments[2], expected = arguments[3];"
+            + "var timeout = arguments[4], done = arguments[arguments.length - 1];"
+            + LOCATOR_HELPERS
+            // Returns [value] once the condition holds, undefined otherwise
+            + "var evaluate = function () {"
+            + "  var els = findAll();"
+            + "  switch (kind) {"
+            + "    case 'presence': return els.length > 0 ? [els[0]] : undefined;"
+            + "    case 'visibility':"
+            + "      for (var i = 0; i < els.length; i++) { if (visible(els[i])) { return [els[i]]; } }"
+            + "      return undefined;"
+            + "    case 'textChange':"
+            + "      var text = els.length > 0 ? els[0].innerText : null;"
+            + "      return text !== null && text !== expected ? [text] : undefined;"
+            + "    case 'countChange': return els.length !== expected ? [els.length] : undefined;"
+            + "    case 'firstHasText':"
+            + "      return els.length === 0 || els[0].innerText.trim() !== '' ? [els.length] : undefined;"
+            + "  }"
+            + "  throw new Error('Unknown wait condition: ' + kind);"
+            + "};"
+            + "var initial = evaluate();"
+            + "if (initial) { done({met: true, value: initial[0]}); return; }"
+            + "var finished = false, observer, timer;"
+            + "var finish = function (result) {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  observer.disconnect();"
+            + "  clearTimeout(timer);"
+            + "  done(result);"
+            + "};"
+            + "var check = function () {"
+            + "  var hit = evaluate();"
+            + "  if (hit) { finish({met: true, value: hit[0]}); }"
+            + "};"
+            + "observer = new MutationObserver(check);"
+            + "observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "timer = setTimeout(function () { finish({met: false}); }, timeout);"
+            // Visibility can flip through CSS transitions that never mutate the DOM
+            + "if (kind === 'visibility') {"
+            + "  var frame = function () { if (!finished) { check(); window.requestAnimationFrame(frame); } };"
+            + "  window.requestAnimationFrame(frame);"
+            + "}";
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    public DomWait(WebDriver driver) {
+        this(driver, Duration.ofSeconds(TestConfig.getExplicitWait()));
+    }
+
+    public DomWait(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    public static Condition presenceOf(By locator) {
+        return new Condition("presence", locator, null, "presence of " + locator);
+    }
+
+    public static Condition visibilityOf(By locator) {
+        return new Condition("visibility", locator, null, "visibility of " + locator);
+    }
+
+    public static Condition textChanges(By locator, String previousText) {
+        return new Condition("textChange", locator, previousText, "text of " + locator + " to change");
+    }
+
+    public static Condition rowCountChanges(By locator, int previousCount) {
+        return new Condition("countChange", locator, previousCount,
+                "count of " + locator + " to change from " + previousCount);
+    }
+
+    public static Condition firstMatchHasText(By locator) {
+        return new Condition("firstHasText", locator, null, "first " + locator + " to have text or no matches");
+    }
+
+    // Returns the condition's value: the element for presence/visibility, the new text, or the new count
+    public <T> T until(Condition condition) {
+        Map<String, Object> result = await(condition, timeout);
+        if (!Boolean.TRUE.equals(result.get("met"))) {
+            throw new TimeoutException("Expected condition failed: waiting for " + condition
+                    + " (tried for " + timeout.toMillis() + " ms)");
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result.get("value");
+        return value;
+    }
+
+    public boolean check(Condition condition, Duration within) {
+        return Boolean.TRUE.equals(await(condition, within).get("met"));
+    }
+
+    // Script timeouts cap a single executeAsyncScript call, so long waits run in slices
+    private Map<String, Object> await(Condition condition, Duration within) {
+        long deadline = System.nanoTime() + within.toNanos();
+        long slice = Math.max(1, TestConfig.getScriptTimeout() - 1) * 1000L;
+        Map<String, Object> result;
+        do {
+            long remaining = Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+            result = execute(condition, Math.min(remaining, slice));
+        } while (!Boolean.TRUE.equals(result.get("met")) && System.nanoTime() < deadline);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> execute(Condition condition, long timeoutMillis) {
+        return (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(WAIT_SCRIPT,
+                condition.kind, condition.using, condition.value, condition.expected, timeoutMillis);
+    }
+
+    // The locator as {"css" or "xpath", expression} for in-page lookups
+    static String[] scriptLocator(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            throw new IllegalArgumentException("Unsupported locator for in-page lookups: " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        if (!List.of("css selector", "xpath", "tag name").contains(parameters.using())) {
+            throw new IllegalArgumentException("Only CSS, XPath and tag name locators are supported: " + locator);
+        }
+        return new String[] { "xpath".equals(parameters.using()) ? "xpath" : "css", String.valueOf(parameters.value()) };
+    }
+
+    public static class Condition {
+        private final String kind;
+        private final String using;
+        private final String value;
+        private final Object expected;
+        private final String description;
+
+        private Condition(String kind, By locator, Object expected, String description) {
+            String[] script = scriptLocator(locator);
+            this.kind = kind;
+            this.using = script[0];
+            this.value = script[1];
+            this.expected = expected;
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DurationHistory {
+
+    private static final String FILE_NAME = "durations.properties";
+    // Weight of the newest run in the moving average
+    private static final double SMOOTHING = 0.3;
+
+    private static final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> durations;
+
+    private DurationHistory(Map<String, Long> durations) {
+        this.durations = durations;
+    }
+
+    public static DurationHistory load() {
+        return new DurationHistory(read(file()));
+    }
+
+    public Long getDuration(String methodId) {
+        return durations.get(methodId);
+    }
+
+    public long getDuration(String methodId, long defaultMillis) {
+        return durations.getOrDefault(methodId, defaultMillis);
+    }
+
+    // Median of the known durations, used for methods that have never run
+    public long getDefaultDuration() {
+        if (durations.isEmpty()) {
+            return TestConfig.getDefaultTestDuration();
+        }
+        long[] values = durations.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    public static String methodId(String className, String methodName) {
+        return className + "." + methodName;
+    }
+
+    // Retries and data-provider invocations add up to the method's total cost
+    public static void record(String methodId, long millis) {
+        pending.merge(methodId, millis, Long::sum);
+    }
+
+    public static void save() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Path file = file();
+        try {
+            Files.createDirectories(file.getParent());
+            Path lockFile = file.resolveSibling(FILE_NAME + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Long> merged = new TreeMap<>(read(file));
+                Map<String, Long> recorded = new HashMap<>(pending);
+                recorded.forEach((id, millis) -> merged.merge(id, millis,
+                        (previous, latest) -> Math.round(previous * (1 - SMOOTHING) + latest * SMOOTHING)));
+
+                Properties properties = new Properties();
+                merged.forEach((id, millis) -> properties.setProperty(id, String.valueOf(millis)));
+                Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    properties.store(out, "Smoothed test method durations in milliseconds");
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                recorded.keySet().forEach(pending::remove);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save duration history to " + file, e);
+        }
+    }
+
+    private static Map<String, Long> read(Path file) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read duration history from " + file, e);
+        }
+        for (String id : properties.stringPropertyNames()) {
+            try {
+                durations.put(id, Long.parseLong(properties.getProperty(id).trim()));
+            } catch (NumberFormatException ignored) {
+                // Skip hand-edited or corrupt entries
+            }
+        }
+        return durations;
+    }
+
+    private static Path file() {
+        return Paths.get(TestConfig.getHistoryDir(), FILE_NAME);
+    }
+}
@@ -0,0 +1,57 @@
+package com.transactioninsights.utils;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Records every test execution into the local run history: smoothed durations for shard planning
+// and the append-only results log used for flakiness and quarantine decisions
+public class DurationRecorder implements ITestListener, ISuiteListener {
+
+    // Attempts per method + arguments in this run, so retries are numbered 0, 1, 2...
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, TestHistory.PASS);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, TestHistory.FAIL);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // Skips caused by a retry still spent time in the browser
+        if (result.wasRetried()) {
+            record(result, TestHistory.RETRIED);
+        } else {
+            TestHistory.record(methodId(result), TestHistory.SKIP, 0, 0, null);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        DurationHistory.save();
+        TestHistory.save();
+    }
+
+    private void record(ITestResult result, String outcome) {
+        String methodId = methodId(result);
+        long millis = result.getEndMillis() - result.getStartMillis();
+        DurationHistory.record(methodId, millis);
+        int attempt = attempts.merge(methodId + Arrays.toString(result.getParameters()), 1, Integer::sum) - 1;
+        TestHistory.record(methodId, outcome, millis, attempt,
+                TestHistory.PASS.equals(outcome) ? null : result.getThrowable());
+    }
+
+    private static String methodId(ITestResult result) {
+        return DurationHistory.methodId(result.getTestClass().getName(), result.getMethod().getMethodName());
+    }
+}
@@ -1,81 +1,192 @@
 package com.transactioninsights.utils;
 
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ExcelUtil {
 
     private static final String FILE_PATH = "src/test/resources/testcases/testcases.xlsx";
+    private static final int TEST_CASE_COLUMNS = 5;
+    private static final int STATUS_COLUMN = 5; // Column 5 is "Automated"
 
+    // Status updates are queued and written to the workbook in one pass by flushStatusUpdates()
+    private static final Map<String, String> pendingStatus = new ConcurrentHashMap<>();
+
+    private static TestCaseCache cache;
+
+    // Served from the compiled cache next to the workbook; the xlsx is only parsed when it changed
     public static Object[][] getTestCases() {
+        TestCaseCache current = testCaseCache();
+        return current != null ? current.rows() : readWorkbook().toArray(new Object[0][]);
+    }
+
+    // Constant-time lookup through the cache's ID index; null when the ID is not in the workbook
+    public static Object[] getTestCase(String testCaseId) {
+        TestCaseCache current = testCaseCache();
+        if (current == null) {
+            return readWorkbook().stream().filter(row -> row[0].equals(testCaseId)).findFirst().orElse(null);
+        }
+        int row = current.indexOf(testCaseId);
+        return row < 0 ? null : current.row(row);
+    }
+
+    private static synchronized TestCaseCache testCaseCache() {
+        Path workbook = Paths.get(FILE_PATH);
+        if (cache == null || !cache.isCurrent(workbook)) {
+            try {
+                cache = TestCaseCache.open(workbook, TEST_CASE_COLUMNS, ExcelUtil::readWorkbook);
+            } catch (IOException e) {
+                // e.g. a read-only checkout: keep working straight from the workbook
+                System.out.println("Test case cache unavailable, reading " + workbook + ": " + e.getMessage());
+                cache = null;
+            }
+        }
+        return cache;
+    }
+
+    // Streams the first sheet through POI's SAX event model, so only one row is held at a time
+    private static List<Object[]> readWorkbook() {
         List<Object[]> data = new ArrayList<>();
-        try (FileInputStream fis = new FileInputStream(FILE_PATH);
-                Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            int rowCount = sheet.getLastRowNum();
-
-            for (int i = 1; i <= rowCount; i++) { // Start from 1 to skip header
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    String testCaseId = getCellValue(row.getCell(0));
-                    String testCaseTitle = getCellValue(row.getCell(1));
-                    String preConditions = getCellValue(row.getCell(2));
-                    String steps = getCellValue(row.getCell(3));
-                    String expectedResult = getCellValue(row.getCell(4));
-
-                    data.add(new Object[] { testCaseId, testCaseTitle, preConditions, steps, expectedResult });
-                }
+        try (OPCPackage pkg = OPCPackage.open(FILE_PATH, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return data;
             }
-        } catch (IOException e) {
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                        new TestCaseRowHandler(data), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
             throw new RuntimeException("Failed to read test cases from Excel", e);
         }
-        return data.toArray(new Object[0][]);
+        return data;
     }
 
     public static void updateTestCaseStatus(String testCaseId, String status) {
-        try (FileInputStream fis = new FileInputStream(FILE_PATH);
-                Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            int rowCount = sheet.getLastRowNum();
-
-            for (int i = 1; i <= rowCount; i++) {
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    String currentId = getCellValue(row.getCell(0));
-                    if (currentId.equals(testCaseId)) {
-                        Cell statusCell = row.createCell(5); // Column 5 is "Automated"
-                        statusCell.setCellValue(status);
-                        break;
+        pendingStatus.put(testCaseId, status);
+    }
+
+    // Applies all queued status updates in a single read-modify-write of the workbook. A lock on a
+    // sidecar file serialises writers across processes (e.g. CI shards sharing a checkout), and the
+    // workbook is re-read under the lock so concurrent writers never drop each other's updates.
+    public static synchronized int flushStatusUpdates() {
+        if (pendingStatus.isEmpty()) {
+            return 0;
+        }
+        Path file = Paths.get(FILE_PATH);
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        Map<String, String> updates = new HashMap<>(pendingStatus);
+        Set<String> unknown = new TreeSet<>(updates.keySet());
+        int applied = 0;
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (InputStream in = Files.newInputStream(file);
+                 Workbook workbook = new XSSFWorkbook(in)) {
+                Sheet sheet = workbook.getSheetAt(0);
+                int rowCount = sheet.getLastRowNum();
+                // IDs are matched as readWorkbook() formats them, so a numeric ID cell reads "1", not "1.0"
+                DataFormatter formatter = new DataFormatter();
+
+                for (int i = 1; i <= rowCount; i++) {
+                    Row row = sheet.getRow(i);
+                    if (row != null) {
+                        String id = formatter.formatCellValue(row.getCell(0));
+                        String status = updates.get(id);
+                        if (status != null) {
+                            unknown.remove(id);
+                            row.createCell(STATUS_COLUMN).setCellValue(status);
+                            applied++;
+                        }
                     }
                 }
-            }
 
-            try (FileOutputStream fos = new FileOutputStream(FILE_PATH)) {
-                workbook.write(fos);
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    workbook.write(out);
+                }
             }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            updates.forEach(pendingStatus::remove);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to update test case status in Excel", e);
+            throw new RuntimeException("Failed to update test case statuses in Excel", e);
+        }
+        if (!unknown.isEmpty()) {
+            System.out.println("Excel status updates dropped for unknown test case ID(s): " + unknown);
         }
+        return applied;
     }
 
-    private static String getCellValue(Cell cell) {
-        if (cell == null)
-            return "";
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
+    // Collects columns A-E of every data row; the header row is skipped
+    private static class TestCaseRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final List<Object[]> data;
+        private Object[] current;
+
+        TestCaseRowHandler(List<Object[]> data) {
+            this.data = data;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            if (rowNum > 0) {
+                current = new Object[TEST_CASE_COLUMNS];
+                Arrays.fill(current, "");
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (current != null) {
+                data.add(current);
+                current = null;
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (current == null || cellReference == null) {
+                return;
+            }
+            int column = new CellReference(cellReference).getCol();
+            if (column < TEST_CASE_COLUMNS && formattedValue != null) {
+                current[column] = formattedValue;
+            }
         }
     }
 }
@@ -2,48 +2,260 @@ package com.transactioninsights.utils;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.Markup;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Media;
+import com.aventstack.extentreports.model.Test;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
 import com.transactioninsights.config.TestConfig;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
 public class ExtentReportManager {
 
+    // Written next to the HTML report so sharded runs can be merged afterwards
+    public static final String JSON_ARCHIVE = "extent-report.json";
+
     private static ExtentReports extent;
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<>();
+    private static ThreadLocal<ReportNode> test = new ThreadLocal<>();
+    private static int testsSinceFlush;
+    private static long lastFlushNanos = System.nanoTime();
+
+    // Report events are applied in submission order by a single writer thread, so test threads
+    // never block on report I/O unless the queue is full
+    private static final int QUEUE_CAPACITY = TestConfig.getReportQueueCapacity();
+    private static final long DRAIN_TIMEOUT_SECONDS = 120;
+    private static final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static volatile Thread writer;
 
-    public static ExtentReports getInstance() {
+    public static synchronized ExtentReports getInstance() {
         if (extent == null) {
-            String reportPath = System.getProperty("user.dir") + "/" + TestConfig.getReportPath();
-            ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
-            sparkReporter.config().setTheme(Theme.STANDARD);
-            sparkReporter.config().setDocumentTitle("Transaction Insights Test Execution");
-            sparkReporter.config().setReportName("Transaction Insights Test Execution");
+            Path reportPath = Paths.get(System.getProperty("user.dir"), TestConfig.getReportPath());
+            JsonFormatter jsonFormatter = new JsonFormatter(reportPath.resolveSibling(JSON_ARCHIVE).toString());
 
-            extent = new ExtentReports();
-            extent.attachReporter(sparkReporter);
-            extent.setSystemInfo("OS", System.getProperty("os.name"));
-            extent.setSystemInfo("User", System.getProperty("user.name"));
+            ExtentReports reports = new ExtentReports();
+            reports.attachReporter(jsonFormatter, createSparkReporter(reportPath));
+            reports.setSystemInfo("OS", System.getProperty("os.name"));
+            reports.setSystemInfo("User", System.getProperty("user.name"));
+            extent = reports;
+            startWriter();
         }
         return extent;
     }
 
-    public static ExtentTest createTest(String testName, String description) {
-        ExtentTest extentTest = extent.createTest(testName, description);
-        test.set(extentTest);
-        return extentTest;
+    // Returns at once even while the writer is rewriting the report. The writer creates the ExtentTest
+    // through the public API, ahead of anything later submitted against the node.
+    public static ReportNode createTest(String testName, String description) {
+        ExtentReports reports = getInstance();
+        ReportNode node = new ReportNode(testName);
+        Date created = new Date();
+        enqueue(() -> {
+            ExtentTest extentTest = reports.createTest(testName, description);
+            extentTest.getModel().setStartTime(created);
+            node.attach(extentTest);
+        });
+        test.set(node);
+        return node;
     }
 
-    public static void setTest(ExtentTest extentTest) {
-        test.set(extentTest);
+    public static void setTest(ReportNode node) {
+        test.set(node);
     }
 
-    public static ExtentTest getTest() {
+    public static ReportNode getTest() {
         return test.get();
     }
 
+    public static void log(ReportNode node, Status status, String details) {
+        submit(node, target -> target.log(status, details));
+    }
+
+    public static void log(ReportNode node, Status status, Markup markup) {
+        submit(node, target -> target.log(status, markup));
+    }
+
+    // Queues an action against a report node. Logs it adds keep the time of submission rather than
+    // the time the writer got to them. A null node (page objects used without a report) is ignored.
+    public static void submit(ReportNode node, Consumer<ExtentTest> action) {
+        if (node == null) {
+            return;
+        }
+        Date submitted = new Date();
+        enqueue(() -> {
+            ExtentTest extentTest = node.getTest();
+            if (extentTest == null) {
+                // Its creation failed and was already reported
+                return;
+            }
+            List<Log> logs = extentTest.getModel().getLogs();
+            int before = logs.size();
+            action.accept(extentTest);
+            for (int i = before; i < logs.size(); i++) {
+                logs.get(i).setTimestamp(submitted);
+            }
+        });
+    }
+
+    public static void setSystemInfo(String key, String value) {
+        enqueue(() -> extent.setSystemInfo(key, value));
+    }
+
+    // Writes the report on the writer once every event queued before it is applied, and waits for it
     public static void flush() {
+        enqueue(ExtentReportManager::writeReport);
+        drain();
+    }
+
+    // Rewrites the report periodically so a crashed or killed run still leaves results on disk
+    public static void testFinished() {
+        enqueue(() -> {
+            testsSinceFlush++;
+            int everyTests = TestConfig.getReportFlushEveryTests();
+            int everySeconds = TestConfig.getReportFlushEverySeconds();
+            long elapsedSeconds = (System.nanoTime() - lastFlushNanos) / 1_000_000_000L;
+            if ((everyTests > 0 && testsSinceFlush >= everyTests)
+                    || (everySeconds > 0 && elapsedSeconds >= everySeconds)) {
+                writeReport();
+            }
+        });
+    }
+
+    private static void writeReport() {
         if (extent != null) {
             extent.flush();
         }
+        testsSinceFlush = 0;
+        lastFlushNanos = System.nanoTime();
+    }
+
+    // Waits until every event submitted before this call has been applied
+    public static void drain() {
+        if (writer == null || Thread.currentThread() == writer) {
+            return;
+        }
+        CountDownLatch drained = new CountDownLatch(1);
+        enqueue(drained::countDown);
+        try {
+            if (!drained.await(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Report writer did not drain within " + DRAIN_TIMEOUT_SECONDS + "s; "
+                        + queued.get() + " event(s) still queued");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Bounded by report.queue.capacity: a full queue parks the producer until the writer catches up
+    private static void enqueue(Runnable event) {
+        if (writer == null) {
+            getInstance();
+        }
+        while (true) {
+            int size = queued.get();
+            if (size < QUEUE_CAPACITY) {
+                if (queued.compareAndSet(size, size + 1)) {
+                    break;
+                }
+            } else {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        events.add(event);
+        LockSupport.unpark(writer);
+    }
+
+    // A platform daemon thread: the project targets Java 17, which has no virtual threads
+    private static void startWriter() {
+        Thread thread = new Thread(ExtentReportManager::writeEvents, "report-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    private static void writeEvents() {
+        while (true) {
+            Runnable event = events.poll();
+            if (event == null) {
+                LockSupport.park();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                // The writer is the only thread that touches the report model, so no lock is held here
+                event.run();
+            } catch (Throwable t) {
+                System.err.println("Report event failed: " + t);
+            }
+        }
+    }
+
+    public static int mergeArchives(List<Path> archives) {
+        Path reportPath = Paths.get(System.getProperty("user.dir"), TestConfig.getReportPath());
+        ExtentReports merged = new ExtentReports();
+        int count = 0;
+        for (Path archive : archives) {
+            if (!Files.isRegularFile(archive)) {
+                System.out.println("Skipping missing shard report: " + archive);
+                continue;
+            }
+            try {
+                int before = merged.getReport().getTestList().size();
+                merged.createDomainFromJsonArchive(archive.toFile());
+                List<Test> added = merged.getReport().getTestList();
+                for (Test model : added.subList(before, added.size())) {
+                    rebaseMedia(model, archive.toAbsolutePath().getParent(), reportPath.getParent());
+                }
+                count++;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read shard report " + archive, e);
+            }
+        }
+        merged.attachReporter(createSparkReporter(reportPath));
+        merged.setSystemInfo("OS", System.getProperty("os.name"));
+        merged.setSystemInfo("User", System.getProperty("user.name"));
+        merged.setSystemInfo("Shards", String.valueOf(count));
+        merged.flush();
+        return count;
+    }
+
+    // Screenshot paths are relative to the shard's report, so they are re-anchored on the merged one
+    private static void rebaseMedia(Test model, Path from, Path to) {
+        model.getMedia().forEach(media -> rebase(media, from, to));
+        model.getLogs().stream().filter(Log::hasMedia).forEach(log -> rebase(log.getMedia(), from, to));
+        model.getChildren().forEach(child -> rebaseMedia(child, from, to));
+    }
+
+    private static void rebase(Media media, Path from, Path to) {
+        String path = media.getPath();
+        if (path == null || path.contains("://") || Paths.get(path).isAbsolute()) {
+            return;
+        }
+        media.setPath(to.relativize(from.resolve(path)).normalize().toString().replace(File.separatorChar, '/'));
+    }
+
+    private static ExtentSparkReporter createSparkReporter(Path reportPath) {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath.toString());
+        sparkReporter.config().setTheme(Theme.STANDARD);
+        sparkReporter.config().setDocumentTitle("Transaction Insights Test Execution");
+        sparkReporter.config().setReportName("Transaction Insights Test Execution");
+        return sparkReporter;
     }
 }
@@ -0,0 +1,36 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Orders methods longest-processing-time first from the recorded durations, so parallel workers pick up
+// the slow tests early and the short ones fill the gaps at the end instead of stretching the tail.
+// Methods without history get the median known duration.
+public class LongestFirstInterceptor implements IMethodInterceptor {
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!TestConfig.isLongestFirstEnabled() || methods.size() < 2) {
+            return methods;
+        }
+        DurationHistory history = DurationHistory.load();
+        long fallback = history.getDefaultDuration();
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        Comparator<IMethodInstance> byDuration =
+                Comparator.comparingLong(method -> history.getDuration(methodId(method), fallback));
+        ordered.sort(byDuration.reversed().thenComparing(LongestFirstInterceptor::methodId));
+        return ordered;
+    }
+
+    private static String methodId(IMethodInstance instance) {
+        ITestNGMethod method = instance.getMethod();
+        return DurationHistory.methodId(method.getRealClass().getName(), method.getMethodName());
+    }
+}
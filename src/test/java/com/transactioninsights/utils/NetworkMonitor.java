@@ -0,0 +1,208 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Tracks in-flight requests through the CDP Network domain so page actions can wait for
+// "network idle" or a specific response instead of guessing from the rendered table.
+public class NetworkMonitor implements AutoCloseable {
+
+    private final DevTools devTools;
+    private final Set<String> resourceTypes;
+    private final Map<String, RequestTiming> inFlight = new HashMap<>();
+    private final List<RequestTiming> completed = new ArrayList<>();
+    private long sequence;
+    private long lastActivityNanos = System.nanoTime();
+
+    private NetworkMonitor(DevTools devTools, Set<String> resourceTypes) {
+        this.devTools = devTools;
+        this.resourceTypes = resourceTypes;
+    }
+
+    // Returns null when the driver does not expose DevTools (e.g. a non-Chromium browser)
+    public static NetworkMonitor attach(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            return null;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        NetworkMonitor monitor = new NetworkMonitor(devTools, TestConfig.getNetworkResourceTypes());
+        monitor.listen();
+        devTools.send(new Command<Void>("Network.enable", Map.of()));
+        return monitor;
+    }
+
+    private void listen() {
+        devTools.addListener(event("Network.requestWillBeSent"), this::onRequest);
+        devTools.addListener(event("Network.responseReceived"), this::onResponse);
+        devTools.addListener(event("Network.loadingFinished"), params -> onFinished(params, false));
+        devTools.addListener(event("Network.loadingFailed"), params -> onFinished(params, true));
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void onRequest(Map<String, Object> params) {
+        if (!resourceTypes.contains(String.valueOf(params.get("type")))) {
+            return;
+        }
+        Map<String, Object> request = (Map<String, Object>) params.get("request");
+        String requestId = String.valueOf(params.get("requestId"));
+        inFlight.put(requestId, new RequestTiming(++sequence, String.valueOf(request.get("method")),
+                String.valueOf(request.get("url")), seconds(params.get("timestamp"))));
+        touch();
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void onResponse(Map<String, Object> params) {
+        RequestTiming timing = inFlight.get(String.valueOf(params.get("requestId")));
+        if (timing != null) {
+            Map<String, Object> response = (Map<String, Object>) params.get("response");
+            timing.status = ((Number) response.get("status")).intValue();
+            touch();
+        }
+    }
+
+    private synchronized void onFinished(Map<String, Object> params, boolean failed) {
+        RequestTiming timing = inFlight.remove(String.valueOf(params.get("requestId")));
+        if (timing != null) {
+            timing.failed = failed;
+            timing.durationMillis = Math.round((seconds(params.get("timestamp")) - timing.startSeconds) * 1000);
+            completed.add(timing);
+            touch();
+        }
+    }
+
+    private void touch() {
+        lastActivityNanos = System.nanoTime();
+        notifyAll();
+    }
+
+    private static double seconds(Object timestamp) {
+        return timestamp instanceof Number ? ((Number) timestamp).doubleValue() : 0;
+    }
+
+    // Sequence number of the latest request seen; pass it to the await methods to ignore older traffic
+    public synchronized long mark() {
+        return sequence;
+    }
+
+    // Waits until no tracked request is in flight and none has started or ended for the quiet period.
+    // The quiet period counts from the call at the earliest, which covers debounced requests.
+    public synchronized void awaitIdle(Duration quiet, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        while (true) {
+            long now = System.nanoTime();
+            long quietLeft = Math.max(lastActivityNanos, start) + quiet.toNanos() - now;
+            if (inFlight.isEmpty() && quietLeft <= 0) {
+                return;
+            }
+            if (now >= deadline) {
+                throw new TimeoutException("Network did not go idle within " + timeout.toMillis() + " ms ("
+                        + inFlight.size() + " request(s) in flight)");
+            }
+            long sleep = inFlight.isEmpty() ? Math.min(quietLeft, deadline - now) : deadline - now;
+            waitNanos(sleep);
+        }
+    }
+
+    // Waits for a request started after the mark whose URL matches the pattern to complete
+    public synchronized RequestTiming awaitResponse(Pattern urlPattern, long sinceMark, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            for (RequestTiming timing : completed) {
+                if (timing.sequence > sinceMark && urlPattern.matcher(timing.url).find()) {
+                    return timing;
+                }
+            }
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                throw new TimeoutException("No response matching " + urlPattern + " within " + timeout.toMillis() + " ms");
+            }
+            waitNanos(left);
+        }
+    }
+
+    public synchronized List<RequestTiming> getCompletedSince(long mark) {
+        List<RequestTiming> timings = new ArrayList<>();
+        for (RequestTiming timing : completed) {
+            if (timing.sequence > mark) {
+                timings.add(timing);
+            }
+        }
+        return timings;
+    }
+
+    private void waitNanos(long nanos) {
+        try {
+            wait(Math.max(1, nanos / 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for network activity", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            devTools.clearListeners();
+            devTools.send(new Command<Void>("Network.disable", Map.of()));
+        } catch (Exception ignored) {
+            // Session may already be gone
+        }
+    }
+
+    public static class RequestTiming {
+        private final long sequence;
+        private final String method;
+        private final String url;
+        private final double startSeconds;
+        private int status;
+        private boolean failed;
+        private long durationMillis;
+
+        private RequestTiming(long sequence, String method, String url, double startSeconds) {
+            this.sequence = sequence;
+            this.method = method;
+            this.url = url;
+            this.startSeconds = startSeconds;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+}
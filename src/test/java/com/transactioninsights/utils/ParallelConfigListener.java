@@ -0,0 +1,27 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+public class ParallelConfigListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        suites.forEach(ParallelConfigListener::apply);
+    }
+
+    public static void apply(XmlSuite suite) {
+        XmlSuite.ParallelMode mode = XmlSuite.ParallelMode.getValidParallel(TestConfig.getParallelMode());
+        if (mode != XmlSuite.ParallelMode.NONE
+                && mode != XmlSuite.ParallelMode.METHODS
+                && mode != XmlSuite.ParallelMode.CLASSES) {
+            throw new IllegalArgumentException("Unsupported parallel.mode: " + TestConfig.getParallelMode()
+                    + " (expected none, methods or classes)");
+        }
+        suite.setParallel(mode);
+        suite.setThreadCount(Math.max(1, TestConfig.getThreadCount()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Splits chronically flaky methods (see TestHistory) out of the main run. Tests declared with
+// <parameter name="quarantine" value="true"/> run only the quarantined methods, without retries;
+// every other test runs everything else.
+public class QuarantineInterceptor implements IMethodInterceptor {
+
+    public static final String QUARANTINE_PARAMETER = "quarantine";
+
+    private static Set<String> quarantined;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        boolean quarantineRun = isQuarantineRun(context.getCurrentXmlTest());
+        Set<String> flaky = getQuarantined();
+        List<IMethodInstance> selected = methods.stream()
+                .filter(method -> flaky.contains(methodId(method.getMethod())) == quarantineRun)
+                .collect(Collectors.toList());
+        if (quarantineRun && !selected.isEmpty()) {
+            System.out.println("Quarantine run: " + selected.stream()
+                    .map(method -> methodId(method.getMethod()))
+                    .distinct()
+                    .collect(Collectors.joining(", ")));
+        } else if (!quarantineRun && selected.size() < methods.size()) {
+            System.out.println((methods.size() - selected.size()) + " flaky method(s) moved to the quarantine run");
+        }
+        return selected;
+    }
+
+    // History is read once per JVM, before this run appends to it
+    public static synchronized Set<String> getQuarantined() {
+        if (quarantined == null) {
+            quarantined = TestConfig.isQuarantineEnabled() ? TestHistory.load().getQuarantined() : Set.of();
+        }
+        return quarantined;
+    }
+
+    public static boolean isQuarantineRun(XmlTest xmlTest) {
+        return xmlTest != null && Boolean.parseBoolean(xmlTest.getParameter(QUARANTINE_PARAMETER));
+    }
+
+    public static boolean isQuarantineRun(ITestResult result) {
+        return result.getTestContext() != null && isQuarantineRun(result.getTestContext().getCurrentXmlTest());
+    }
+
+    private static String methodId(ITestNGMethod method) {
+        return DurationHistory.methodId(method.getRealClass().getName(), method.getMethodName());
+    }
+}
@@ -0,0 +1,409 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Measures what auto-refresh costs the browser over a time window. In the page, PerformanceObservers
+// collect long tasks and layout shifts, and a MutationObserver on the table body timestamps every
+// re-render at its next frame, paired with the fetch/XHR that fed it. JS heap and DOM node counts are
+// sampled through CDP Performance.getMetrics (after a forced GC), or from the page when DevTools is
+// unavailable. The report is checked against the refresh.budget.* settings.
+public class RefreshProbe {
+
+    private static final String INSTALL_SCRIPT =
+            "var w = window;"
+            + "if (w.__tiRefreshProbe) { w.__tiRefreshProbe.stop(); }"
+            + "var probe = {renders: [], longTasks: [], shift: 0, observers: [], supported: {}};"
+            + "var observe = function (type, callback) {"
+            + "  try {"
+            + "    var observer = new PerformanceObserver(function (list) { list.getEntries().forEach(callback); });"
+            + "    observer.observe({type: type, buffered: false});"
+            + "    probe.observers.push(observer);"
+            + "    return true;"
+            + "  } catch (e) { return false; }"
+            + "};"
+            + "probe.supported.longtask = observe('longtask', function (e) { probe.longTasks.push(e.duration); });"
+            + "probe.supported.layoutShift = observe('layout-shift', function (e) {"
+            + "  if (!e.hadRecentInput) { probe.shift += e.value; }"
+            + "});"
+            + "probe.paints = {};"
+            + "performance.getEntriesByType('paint').forEach(function (e) { probe.paints[e.name] = e.startTime; });"
+            + "performance.clearResourceTimings();"
+            + "performance.setResourceTimingBufferSize(5000);"
+            // Start of the latest data request that finished before the DOM changed, after the previous render
+            + "var requestStart = function (before, after) {"
+            + "  var latest = -1;"
+            + "  performance.getEntriesByType('resource').forEach(function (e) {"
+            + "    if ((e.initiatorType === 'fetch' || e.initiatorType === 'xmlhttprequest')"
+            + "        && e.responseEnd <= before && e.startTime > after && e.startTime > latest) { latest = e.startTime; }"
+            + "  });"
+            + "  return latest;"
+            + "};"
+            + "var pending = false, lastRender = performance.now();"
+            + "var body = document.querySelector('table tbody') || document.body;"
+            + "var mutations = new MutationObserver(function () {"
+            + "  if (pending) { return; }"
+            + "  pending = true;"
+            + "  var changed = performance.now();"
+            + "  window.requestAnimationFrame(function (frame) {"
+            + "    pending = false;"
+            + "    var start = requestStart(changed, lastRender);"
+            + "    probe.renders.push({at: frame, latency: start >= 0 ? frame - start : -1});"
+            + "    lastRender = frame;"
+            + "  });"
+            + "});"
+            + "mutations.observe(body, {childList: true, subtree: true, characterData: true});"
+            + "probe.stop = function () {"
+            + "  mutations.disconnect();"
+            + "  probe.observers.forEach(function (o) { o.disconnect(); });"
+            + "};"
+            + "w.__tiRefreshProbe = probe;";
+
+    private static final String COLLECT_SCRIPT =
+            "var probe = window.__tiRefreshProbe;"
+            + "if (!probe) { return null; }"
+            + "probe.stop();"
+            + "delete window.__tiRefreshProbe;"
+            + "return {renders: probe.renders, longTasks: probe.longTasks, shift: probe.shift,"
+            + "  paints: probe.paints, supported: probe.supported};";
+
+    private static final String SAMPLE_SCRIPT =
+            "return {nodes: document.getElementsByTagName('*').length,"
+            + "  heap: window.performance && performance.memory ? performance.memory.usedJSHeapSize : -1};";
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private final List<Sample> samples = new ArrayList<>();
+    private long startNanos;
+
+    // driver runs the page scripts; session is the raw driver DevTools is taken from (may be the same)
+    public RefreshProbe(WebDriver driver, WebDriver session) {
+        this.driver = driver;
+        this.devTools = openDevTools(session);
+    }
+
+    private static DevTools openDevTools(WebDriver session) {
+        if (!(session instanceof HasDevTools)) {
+            return null;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) session).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.send(new Command<Void>("Performance.enable", Map.of()));
+            return devTools;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public boolean isUsingDevTools() {
+        return devTools != null;
+    }
+
+    // Installs the in-page observers and takes the baseline sample
+    public void start() {
+        ((JavascriptExecutor) driver).executeScript(INSTALL_SCRIPT);
+        samples.clear();
+        startNanos = System.nanoTime();
+        samples.add(sample(true));
+    }
+
+    // Samples every interval until the window has passed, then collects the in-page observations
+    @SuppressWarnings("unchecked")
+    public Report record(Duration window, Duration interval) {
+        long deadline = startNanos + window.toNanos();
+        while (true) {
+            long remaining = (deadline - System.nanoTime()) / 1_000_000;
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                Thread.sleep(Math.min(remaining, interval.toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            samples.add(sample(System.nanoTime() >= deadline));
+        }
+        Map<String, Object> page = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(COLLECT_SCRIPT);
+        if (devTools != null) {
+            try {
+                devTools.send(new Command<Void>("Performance.disable", Map.of()));
+            } catch (RuntimeException ignored) {
+                // The session may have gone; the samples are already taken
+            }
+        }
+        return new Report(page == null ? Collections.emptyMap() : page, samples,
+                (System.nanoTime() - startNanos) / 1_000_000, devTools != null);
+    }
+
+    // Heap is measured after a forced GC at the start and end of the window, so growth means retained memory
+    @SuppressWarnings("unchecked")
+    private Sample sample(boolean collectGarbage) {
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        if (devTools != null) {
+            try {
+                if (collectGarbage) {
+                    devTools.send(new Command<Void>("HeapProfiler.collectGarbage", Map.of()));
+                }
+                Map<String, Object> result = devTools.send(new Command<Map<String, Object>>("Performance.getMetrics",
+                        Map.of(), input -> input.read(Json.MAP_TYPE)));
+                Map<String, Double> metrics = new HashMap<>();
+                for (Map<String, Object> metric : (List<Map<String, Object>>) result.get("metrics")) {
+                    metrics.put(String.valueOf(metric.get("name")), ((Number) metric.get("value")).doubleValue());
+                }
+                return new Sample(elapsed, metrics.getOrDefault("JSHeapUsedSize", -1d).longValue(),
+                        metrics.getOrDefault("Nodes", -1d).longValue(),
+                        metrics.getOrDefault("LayoutCount", -1d).longValue());
+            } catch (RuntimeException e) {
+                // Fall through to the page's own counters
+            }
+        }
+        Map<String, Object> values = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(SAMPLE_SCRIPT);
+        return new Sample(elapsed, ((Number) values.get("heap")).longValue(), ((Number) values.get("nodes")).longValue(),
+                -1);
+    }
+
+    public static class Sample {
+        private final long elapsedMillis;
+        private final long heapBytes;
+        private final long nodes;
+        private final long layouts;
+
+        Sample(long elapsedMillis, long heapBytes, long nodes, long layouts) {
+            this.elapsedMillis = elapsedMillis;
+            this.heapBytes = heapBytes;
+            this.nodes = nodes;
+            this.layouts = layouts;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        // -1 when the browser does not expose the heap size
+        public long getHeapBytes() {
+            return heapBytes;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        // Layouts since the page loaded (CDP only, otherwise -1)
+        public long getLayouts() {
+            return layouts;
+        }
+    }
+
+    public static class Report {
+        private final long windowMillis;
+        private final boolean devTools;
+        private final List<Sample> samples;
+        private final List<Double> intervals = new ArrayList<>();
+        private final List<Double> renderLatencies = new ArrayList<>();
+        private final List<Double> longTasks = new ArrayList<>();
+        private final double layoutShift;
+        private final double firstContentfulPaint;
+        private final boolean longTasksSupported;
+        private final boolean layoutShiftSupported;
+        private int refreshes;
+
+        @SuppressWarnings("unchecked")
+        Report(Map<String, Object> page, List<Sample> samples, long windowMillis, boolean devTools) {
+            this.windowMillis = windowMillis;
+            this.devTools = devTools;
+            this.samples = Collections.unmodifiableList(new ArrayList<>(samples));
+            double previous = -1;
+            for (Map<String, Object> render : (List<Map<String, Object>>) page.getOrDefault("renders", List.of())) {
+                double at = ((Number) render.get("at")).doubleValue();
+                double latency = ((Number) render.get("latency")).doubleValue();
+                if (previous >= 0) {
+                    intervals.add(at - previous);
+                }
+                if (latency >= 0) {
+                    renderLatencies.add(latency);
+                }
+                previous = at;
+                refreshes++;
+            }
+            for (Object duration : (List<Object>) page.getOrDefault("longTasks", List.of())) {
+                longTasks.add(((Number) duration).doubleValue());
+            }
+            Object shift = page.get("shift");
+            layoutShift = shift instanceof Number ? ((Number) shift).doubleValue() : 0;
+            Object fcp = ((Map<String, Object>) page.getOrDefault("paints", Map.of())).get("first-contentful-paint");
+            firstContentfulPaint = fcp instanceof Number ? ((Number) fcp).doubleValue() : -1;
+            Map<String, Object> supported = (Map<String, Object>) page.getOrDefault("supported", Map.of());
+            longTasksSupported = Boolean.TRUE.equals(supported.get("longtask"));
+            layoutShiftSupported = Boolean.TRUE.equals(supported.get("layoutShift"));
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        // Table re-renders seen in the window
+        public int getRefreshes() {
+            return refreshes;
+        }
+
+        public double getIntervalMedianMillis() {
+            return percentile(intervals, 50);
+        }
+
+        public double getIntervalMaxMillis() {
+            return percentile(intervals, 100);
+        }
+
+        // Data request start to the first frame after the table changed
+        public double getRenderLatencyMedianMillis() {
+            return percentile(renderLatencies, 50);
+        }
+
+        public double getRenderLatencyMaxMillis() {
+            return percentile(renderLatencies, 100);
+        }
+
+        public int getLongTaskCount() {
+            return longTasks.size();
+        }
+
+        public double getLongTaskMaxMillis() {
+            return percentile(longTasks, 100);
+        }
+
+        public double getLongTaskTotalMillis() {
+            return longTasks.stream().mapToDouble(Double::doubleValue).sum();
+        }
+
+        // Cumulative layout shift in the window, excluding shifts right after input
+        public double getLayoutShift() {
+            return layoutShift;
+        }
+
+        // From page load, for context; -1 when the browser reported none
+        public double getFirstContentfulPaintMillis() {
+            return firstContentfulPaint;
+        }
+
+        public List<Sample> getSamples() {
+            return samples;
+        }
+
+        public long getHeapGrowthBytes() {
+            Sample first = samples.get(0);
+            Sample last = samples.get(samples.size() - 1);
+            return first.heapBytes < 0 || last.heapBytes < 0 ? 0 : last.heapBytes - first.heapBytes;
+        }
+
+        public long getNodeGrowth() {
+            return samples.get(samples.size() - 1).nodes - samples.get(0).nodes;
+        }
+
+        public long getMaxNodes() {
+            return samples.stream().mapToLong(Sample::getNodes).max().orElse(0);
+        }
+
+        public long getLayouts() {
+            Sample first = samples.get(0);
+            Sample last = samples.get(samples.size() - 1);
+            return first.layouts < 0 ? -1 : last.layouts - first.layouts;
+        }
+
+        // One message per refresh.budget.* setting that was exceeded; a budget of 0 is not checked
+        public List<String> getBudgetViolations() {
+            List<String> violations = new ArrayList<>();
+            if (refreshes == 0) {
+                violations.add("No table refresh rendered within " + windowMillis + " ms");
+            }
+            over(violations, "Render latency", getRenderLatencyMaxMillis(), TestConfig.getRefreshBudgetRenderMillis(),
+                    "ms");
+            over(violations, "Longest task", getLongTaskMaxMillis(), TestConfig.getRefreshBudgetLongTaskMillis(), "ms");
+            over(violations, "Layout shift", layoutShift, TestConfig.getRefreshBudgetLayoutShift(), "");
+            over(violations, "JS heap growth", getHeapGrowthBytes() / (1024.0 * 1024.0),
+                    TestConfig.getRefreshBudgetHeapGrowthMb(), "MB");
+            over(violations, "DOM node growth", getNodeGrowth(), TestConfig.getRefreshBudgetNodeGrowth(), "");
+            return violations;
+        }
+
+        private static void over(List<String> violations, String metric, double value, double budget, String unit) {
+            if (budget > 0 && value > budget) {
+                violations.add(String.format(Locale.ROOT, "%s %.2f%s exceeds the budget of %.2f%s", metric, value,
+                        unit, budget, unit));
+            }
+        }
+
+        public boolean isWithinBudget() {
+            return getBudgetViolations().isEmpty();
+        }
+
+        public String summary() {
+            return String.format(Locale.ROOT, "%d refresh(es) in %d ms: interval p50 %s ms, render latency p50 %s"
+                    + " / max %s ms, %d long task(s), layout shift %.3f, heap %+.1f MB, DOM nodes %+d (%s)",
+                    refreshes, windowMillis, millis(getIntervalMedianMillis()), millis(getRenderLatencyMedianMillis()),
+                    millis(getRenderLatencyMaxMillis()), getLongTaskCount(), layoutShift,
+                    getHeapGrowthBytes() / (1024.0 * 1024.0), getNodeGrowth(), devTools ? "CDP" : "page counters");
+        }
+
+        public String describe() {
+            StringBuilder text = new StringBuilder(summary());
+            getBudgetViolations().forEach(violation -> text.append('\n').append(violation));
+            return text.toString();
+        }
+
+        // Metric rows for MarkupHelper.createTable
+        public String[][] toTable() {
+            List<String[]> rows = new ArrayList<>();
+            rows.add(new String[] { "Metric", "Value" });
+            rows.add(row("Refreshes", String.valueOf(refreshes)));
+            rows.add(row("Refresh interval p50 / max (ms)", millis(getIntervalMedianMillis()) + " / "
+                    + millis(getIntervalMaxMillis())));
+            rows.add(row("Render latency p50 / max (ms)", millis(getRenderLatencyMedianMillis()) + " / "
+                    + millis(getRenderLatencyMaxMillis())));
+            rows.add(row("Long tasks (count / max / total ms)", longTasksSupported
+                    ? getLongTaskCount() + " / " + millis(getLongTaskMaxMillis()) + " / " + millis(getLongTaskTotalMillis())
+                    : "not supported"));
+            rows.add(row("Layout shift", layoutShiftSupported ? String.format(Locale.ROOT, "%.3f", layoutShift)
+                    : "not supported"));
+            rows.add(row("First contentful paint (ms)", millis(firstContentfulPaint)));
+            rows.add(row("JS heap growth (MB)", String.format(Locale.ROOT, "%+.2f",
+                    getHeapGrowthBytes() / (1024.0 * 1024.0))));
+            rows.add(row("DOM nodes growth / max", getNodeGrowth() + " / " + getMaxNodes()));
+            rows.add(row("Layouts", getLayouts() < 0 ? "n/a" : String.valueOf(getLayouts())));
+            return rows.toArray(new String[0][]);
+        }
+
+        private static String[] row(String metric, String value) {
+            return new String[] { metric, value };
+        }
+
+        private static String millis(double value) {
+            return value < 0 ? "n/a" : String.format(Locale.ROOT, "%.0f", value);
+        }
+
+        // Nearest-rank percentile; -1 when there are no values
+        private static double percentile(List<Double> values, int percentile) {
+            if (values.isEmpty()) {
+                return -1;
+            }
+            List<Double> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+    }
+}
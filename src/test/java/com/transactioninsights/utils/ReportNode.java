@@ -0,0 +1,28 @@
+package com.transactioninsights.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+
+// A test's place in the report as seen from test threads. The ExtentTest behind it is created and only
+// ever touched by the report writer, so everything done with a node goes through ExtentReportManager.
+public final class ReportNode {
+
+    private final String name;
+    // Written and read on the report writer only
+    private ExtentTest test;
+
+    ReportNode(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    ExtentTest getTest() {
+        return test;
+    }
+
+    void attach(ExtentTest test) {
+        this.test = test;
+    }
+}
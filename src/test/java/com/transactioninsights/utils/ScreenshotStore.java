@@ -0,0 +1,93 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Writes screenshots to files beside the report instead of embedding base64 in it.
+// JPEG (default) is re-encoded at screenshot.quality; both formats honour screenshot.max.width.
+public class ScreenshotStore {
+
+    public static final String DIRECTORY = "screenshots";
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private ScreenshotStore() {
+    }
+
+    // Returns the screenshot's path relative to the HTML report, for addScreenCaptureFromPath
+    public static String save(byte[] png, String name) throws IOException {
+        boolean jpeg = !"png".equalsIgnoreCase(TestConfig.getScreenshotFormat());
+        String fileName = String.format("%03d-%s.%s", sequence.incrementAndGet(),
+                name.replaceAll("[^A-Za-z0-9_-]+", "_"), jpeg ? "jpg" : "png");
+        Path directory = Paths.get(System.getProperty("user.dir"), TestConfig.getReportPath())
+                .resolveSibling(DIRECTORY);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(fileName);
+
+        int maxWidth = TestConfig.getScreenshotMaxWidth();
+        BufferedImage image = null;
+        if (jpeg || maxWidth > 0) {
+            image = ImageIO.read(new ByteArrayInputStream(png));
+        }
+        if (image == null) {
+            Files.write(file, png);
+        } else {
+            image = downscale(image, maxWidth, jpeg);
+            if (jpeg) {
+                writeJpeg(image, file, TestConfig.getScreenshotQuality());
+            } else {
+                ImageIO.write(image, "png", file.toFile());
+            }
+        }
+        return DIRECTORY + "/" + fileName;
+    }
+
+    // JPEG has no alpha channel, so the image is always redrawn onto an RGB canvas for it
+    private static BufferedImage downscale(BufferedImage image, int maxWidth, boolean opaque) {
+        boolean resize = maxWidth > 0 && image.getWidth() > maxWidth;
+        if (!resize && !opaque) {
+            return image;
+        }
+        int width = resize ? maxWidth : image.getWidth();
+        int height = resize ? Math.max(1, Math.round(image.getHeight() * (float) maxWidth / image.getWidth()))
+                : image.getHeight();
+        BufferedImage scaled = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path file, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
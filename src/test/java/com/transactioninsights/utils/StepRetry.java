@@ -0,0 +1,174 @@
+package com.transactioninsights.utils;
+
+import com.aventstack.extentreports.Status;
+import com.transactioninsights.config.TestConfig;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// In-session retry of idempotent page-object actions (retry.mode=step). Transient failures such as a
+// stale element or an intercepted click are retried with exponential backoff in the same browser,
+// instead of failing the test and re-running it in a fresh session. Wait timeouts are not retried:
+// each retry would wait the full explicit.wait again for an element that is most likely missing.
+public class StepRetry {
+
+    private static final List<Class<? extends Throwable>> RECOVERABLE = List.of(
+            StaleElementReferenceException.class,
+            ElementClickInterceptedException.class,
+            ElementNotInteractableException.class);
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    // Set on the running ITestResult once a step exhausted its in-session retries
+    private static final String EXHAUSTED_ATTRIBUTE = "stepRetryExhausted";
+
+    private static final ThreadLocal<Stats> stats = ThreadLocal.withInitial(() -> new Stats(0));
+    private static final AtomicInteger suiteRecoveries = new AtomicInteger();
+    private static final AtomicLong suiteSavedMillis = new AtomicLong();
+
+    private StepRetry() {
+    }
+
+    public static boolean isStepMode() {
+        return "step".equalsIgnoreCase(TestConfig.getRetryMode());
+    }
+
+    // setupMillis is what a full test retry would pay again for a fresh session before the test body runs
+    public static void startTest(long setupMillis) {
+        stats.set(new Stats(setupMillis));
+    }
+
+    public static Stats finishTest() {
+        Stats finished = stats.get();
+        stats.remove();
+        return finished;
+    }
+
+    public static int getSuiteRecoveries() {
+        return suiteRecoveries.get();
+    }
+
+    public static long getSuiteSavedMillis() {
+        return suiteSavedMillis.get();
+    }
+
+    public static boolean isRecoverable(Throwable failure) {
+        return recoverableCause(failure) != null;
+    }
+
+    public static void run(ReportNode test, String action, Runnable body) {
+        run(test, action, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public static <T> T run(ReportNode test, String action, Supplier<T> body) {
+        if (!isStepMode()) {
+            return body.get();
+        }
+        int attempts = TestConfig.getStepRetryAttempts() + 1;
+        long backoff = TestConfig.getStepRetryBackoffMillis();
+        long firstFailureNanos = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = body.get();
+                if (attempt > 1) {
+                    long savedMillis = stats.get().recovered(firstFailureNanos, attempt - 1);
+                    ExtentReportManager.log(test, Status.INFO, String.format(
+                            "%s recovered in-session after %d retr%s (~%d ms saved vs. a full test retry)",
+                            action, attempt - 1, attempt == 2 ? "y" : "ies", savedMillis));
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (attempt >= attempts || !isRecoverable(e)) {
+                    if (attempt > 1 && isRecoverable(e)) {
+                        markExhausted();
+                    }
+                    throw e;
+                }
+                if (firstFailureNanos == 0) {
+                    firstFailureNanos = System.nanoTime();
+                }
+                long delay = Math.min(backoff << (attempt - 1), MAX_BACKOFF_MILLIS);
+                ExtentReportManager.log(test, Status.WARNING, String.format("%s: %s, retrying in %d ms (%d/%d)",
+                        action, recoverableCause(e).getClass().getSimpleName(), delay, attempt, attempts - 1));
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void markExhausted() {
+        ITestResult result = Reporter.getCurrentTestResult();
+        if (result != null) {
+            result.setAttribute(EXHAUSTED_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    // True when a step in this test attempt already retried in-session and still failed. Each attempt
+    // gets a fresh ITestResult, so the flag never carries over to the next one.
+    public static boolean isExhausted(ITestResult result) {
+        return Boolean.TRUE.equals(result.getAttribute(EXHAUSTED_ATTRIBUTE));
+    }
+
+    private static Throwable recoverableCause(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> type : RECOVERABLE) {
+                if (type.isInstance(cause)) {
+                    return cause;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Per-test tally of in-session recoveries
+    public static class Stats {
+        private final long testStartNanos = System.nanoTime();
+        private final long setupMillis;
+        private int recoveries;
+        private int retries;
+        private long savedMillis;
+
+        Stats(long setupMillis) {
+            this.setupMillis = setupMillis;
+        }
+
+        // A full retry would redo session setup plus everything up to the failure; the step retry
+        // only cost the time from the first failure to the recovery
+        long recovered(long firstFailureNanos, int retryCount) {
+            long now = System.nanoTime();
+            long rerunMillis = setupMillis + (firstFailureNanos - testStartNanos) / 1_000_000;
+            long spentMillis = (now - firstFailureNanos) / 1_000_000;
+            long saved = Math.max(0, rerunMillis - spentMillis);
+            recoveries++;
+            retries += retryCount;
+            savedMillis += saved;
+            suiteRecoveries.incrementAndGet();
+            suiteSavedMillis.addAndGet(saved);
+            return saved;
+        }
+
+        public int getRecoveries() {
+            return recoveries;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public long getSavedMillis() {
+            return savedMillis;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.transactioninsights.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Compiled, memory-mapped copy of the test-case workbook, stored next to it as <workbook>.cache.
+// Layout (big-endian): header | cell end offsets | ID hash index | UTF-8 cell data.
+// The header records the workbook's mtime, size and SHA-256. A matching mtime and size is trusted as is.
+// Otherwise the hash decides whether the cache is rebuilt or only re-stamped (e.g. after a fresh checkout).
+public final class TestCaseCache {
+
+    private static final int MAGIC = 0x54434331; // "TCC1"
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + HASH_BYTES + 4 + 4 + 4;
+    private static final int MTIME_OFFSET = 8;
+
+    private final MappedByteBuffer buffer;
+    private final long workbookMtime;
+    private final long workbookSize;
+    private final int rows;
+    private final int columns;
+    private final int indexCapacity;
+    private final int offsetsStart;
+    private final int indexStart;
+    private final int dataStart;
+
+    private TestCaseCache(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.workbookMtime = buffer.getLong(MTIME_OFFSET);
+        this.workbookSize = buffer.getLong(MTIME_OFFSET + 8);
+        this.rows = buffer.getInt(HEADER_BYTES - 12);
+        this.columns = buffer.getInt(HEADER_BYTES - 8);
+        this.indexCapacity = buffer.getInt(HEADER_BYTES - 4);
+        this.offsetsStart = HEADER_BYTES;
+        this.indexStart = offsetsStart + (rows * columns + 1) * 4;
+        this.dataStart = indexStart + indexCapacity * 4;
+    }
+
+    public static Path cacheFileFor(Path workbook) {
+        return workbook.resolveSibling(workbook.getFileName() + ".cache");
+    }
+
+    // Maps the cache for the workbook, rebuilding it from parser's rows when it is missing or stale
+    public static TestCaseCache open(Path workbook, int columns, Supplier<List<Object[]>> parser) throws IOException {
+        Path cacheFile = cacheFileFor(workbook);
+        BasicFileAttributes attributes = Files.readAttributes(workbook, BasicFileAttributes.class);
+        long mtime = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                TestCaseCache cache = map(cacheFile);
+                if (cache.columns == columns) {
+                    if (cache.workbookMtime == mtime && cache.workbookSize == size) {
+                        return cache;
+                    }
+                    byte[] hash = sha256(workbook);
+                    if (cache.hasHash(hash)) {
+                        restamp(cacheFile, mtime, size);
+                        return map(cacheFile);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Unreadable or foreign file: fall through and rebuild it
+            }
+        }
+
+        byte[] hash = sha256(workbook);
+        write(cacheFile, parser.get(), columns, mtime, size, hash);
+        return map(cacheFile);
+    }
+
+    // Cheap staleness check for callers that keep a cache instance between lookups
+    public boolean isCurrent(Path workbook) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(workbook, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() == workbookMtime && attributes.size() == workbookSize;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public String cell(int row, int column) {
+        int slot = row * columns + column;
+        int start = buffer.getInt(offsetsStart + slot * 4);
+        int end = buffer.getInt(offsetsStart + (slot + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        buffer.get(dataStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Object[] row(int row) {
+        Object[] values = new Object[columns];
+        for (int c = 0; c < columns; c++) {
+            values[c] = cell(row, c);
+        }
+        return values;
+    }
+
+    public Object[][] rows() {
+        Object[][] values = new Object[rows][];
+        for (int r = 0; r < rows; r++) {
+            values[r] = row(r);
+        }
+        return values;
+    }
+
+    // Row of the first test case with this ID (column 0), or -1
+    public int indexOf(String testCaseId) {
+        if (indexCapacity == 0 || testCaseId == null) {
+            return -1;
+        }
+        int mask = indexCapacity - 1;
+        int slot = mix(testCaseId.hashCode()) & mask;
+        // checkLayout guarantees an empty slot; the bound only keeps a lookup from spinning if it did not
+        for (int probes = 0; probes < indexCapacity; probes++, slot = (slot + 1) & mask) {
+            int entry = buffer.getInt(indexStart + slot * 4);
+            if (entry == 0) {
+                return -1;
+            }
+            if (cell(entry - 1, 0).equals(testCaseId)) {
+                return entry - 1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean hasHash(byte[] hash) {
+        byte[] stored = new byte[HASH_BYTES];
+        buffer.get(MTIME_OFFSET + 16, stored);
+        return Arrays.equals(stored, hash);
+    }
+
+    private static TestCaseCache map(Path cacheFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalStateException("Truncated test case cache: " + cacheFile);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a test case cache: " + cacheFile);
+            }
+            checkLayout(buffer, cacheFile);
+            return new TestCaseCache(buffer);
+        }
+    }
+
+    // Checks that the header's row, column and index counts fit the file and that every offset and
+    // index slot points inside it, so a truncated or partly written cache is rebuilt by open() instead
+    // of failing with an IndexOutOfBoundsException in the middle of a test
+    private static void checkLayout(ByteBuffer buffer, Path cacheFile) {
+        long fileSize = buffer.capacity();
+        int rows = buffer.getInt(HEADER_BYTES - 12);
+        int columns = buffer.getInt(HEADER_BYTES - 8);
+        int indexCapacity = buffer.getInt(HEADER_BYTES - 4);
+        boolean validIndex = rows == 0 ? indexCapacity == 0
+                : indexCapacity > rows && Integer.bitCount(indexCapacity) == 1;
+        if (rows < 0 || columns <= 0 || !validIndex) {
+            throw new IllegalStateException("Corrupt test case cache header (rows " + rows + ", columns " + columns
+                    + ", index " + indexCapacity + "): " + cacheFile);
+        }
+        long cells = (long) rows * columns;
+        long dataStart = HEADER_BYTES + (cells + 1) * 4 + (long) indexCapacity * 4;
+        if (dataStart > fileSize) {
+            throw new IllegalStateException("Truncated test case cache: " + cacheFile + " holds " + fileSize
+                    + " bytes, its header needs " + dataStart + " before the cell data");
+        }
+        long dataBytes = fileSize - dataStart;
+        int previous = 0;
+        for (int slot = 0; slot <= cells; slot++) {
+            int offset = buffer.getInt(HEADER_BYTES + slot * 4);
+            if (offset < previous || offset > dataBytes || (slot == 0 && offset != 0)) {
+                throw new IllegalStateException("Corrupt cell offset " + offset + " at cell " + slot
+                        + " of test case cache: " + cacheFile);
+            }
+            previous = offset;
+        }
+        if (previous != dataBytes) {
+            throw new IllegalStateException("Truncated test case cache: " + cacheFile + " holds " + dataBytes
+                    + " bytes of cell data, its offsets end at " + previous);
+        }
+        int indexStart = HEADER_BYTES + (int) (cells + 1) * 4;
+        boolean hasEmptySlot = indexCapacity == 0;
+        for (int slot = 0; slot < indexCapacity; slot++) {
+            int entry = buffer.getInt(indexStart + slot * 4);
+            if (entry < 0 || entry > rows) {
+                throw new IllegalStateException("Corrupt index entry " + entry + " in test case cache: "
+                        + cacheFile);
+            }
+            hasEmptySlot |= entry == 0;
+        }
+        // Lookups of absent IDs stop at an empty slot, and the index is written with more slots than rows
+        if (!hasEmptySlot) {
+            throw new IllegalStateException("Corrupt index without an empty slot in test case cache: " + cacheFile);
+        }
+    }
+
+    private static void restamp(Path cacheFile, long mtime, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+            ByteBuffer stamp = ByteBuffer.allocate(16).putLong(mtime).putLong(size).flip();
+            channel.write(stamp, MTIME_OFFSET);
+        }
+    }
+
+    private static void write(Path cacheFile, List<Object[]> data, int columns, long mtime, long size, byte[] hash)
+            throws IOException {
+        int rows = data.size();
+        byte[][] cells = new byte[rows * columns][];
+        int dataBytes = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                Object value = c < data.get(r).length ? data.get(r)[c] : null;
+                byte[] bytes = (value == null ? "" : value.toString()).getBytes(StandardCharsets.UTF_8);
+                cells[r * columns + c] = bytes;
+                dataBytes += bytes.length;
+            }
+        }
+
+        // Open addressing with linear probing, load factor <= 0.5; slots hold row + 1 (0 = empty)
+        int indexCapacity = rows == 0 ? 0 : Integer.highestOneBit(rows * 2 - 1) << 1;
+        int[] index = new int[indexCapacity];
+        for (int r = 0; r < rows; r++) {
+            String id = new String(cells[r * columns], StandardCharsets.UTF_8);
+            int mask = indexCapacity - 1;
+            int slot = mix(id.hashCode()) & mask;
+            boolean duplicate = false;
+            while (index[slot] != 0 && !duplicate) {
+                duplicate = Arrays.equals(cells[(index[slot] - 1) * columns], cells[r * columns]);
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                index[slot] = r + 1;
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + (cells.length + 1) * 4 + indexCapacity * 4 + dataBytes);
+        out.putInt(MAGIC).putInt(VERSION).putLong(mtime).putLong(size).put(hash)
+                .putInt(rows).putInt(columns).putInt(indexCapacity);
+        int offset = 0;
+        out.putInt(offset);
+        for (byte[] cell : cells) {
+            offset += cell.length;
+            out.putInt(offset);
+        }
+        for (int slot : index) {
+            out.putInt(slot);
+        }
+        for (byte[] cell : cells) {
+            out.put(cell);
+        }
+        out.flip();
+
+        // Build aside and move into place so concurrent readers never map a half-written file
+        Path temp = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), cacheFile.getFileName().toString(),
+                ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] chunk = new byte[64 * 1024];
+            for (int read; (read = in.read(chunk)) > 0; ) {
+                digest.update(chunk, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    // Spreads String.hashCode so sequential IDs (TC_001, TC_002, ...) do not cluster
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,194 @@
+package com.transactioninsights.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Round trips and corruption handling of the compiled test case cache; the "workbook" is any file,
+// since the cache only hashes it and the rows come from the supplied parser
+public class TestCaseCacheTest {
+
+    private static final int COLUMNS = 3;
+    // Byte positions in the cache header
+    private static final int ROWS_OFFSET = 56;
+    private static final int INDEX_OFFSET = 64;
+    private static final int OFFSETS_START = 68;
+
+    private Path dir;
+    private Path workbook;
+    private Path cacheFile;
+    private List<Object[]> rows;
+    private int parses;
+
+    @BeforeMethod
+    public void createWorkbook() throws IOException {
+        dir = Files.createTempDirectory("test-case-cache");
+        workbook = dir.resolve("testcases.xlsx");
+        Files.writeString(workbook, "version 1");
+        cacheFile = TestCaseCache.cacheFileFor(workbook);
+        rows = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            rows.add(new Object[] { String.format("TC_%03d", i), "Case " + i, i % 2 == 0 ? "Yes" : "" });
+        }
+        rows.add(new Object[] { "TC_ü", "Ünïcode", null });
+        rows.add(new Object[] { "TC_001", "Duplicate ID", "No" });
+        parses = 0;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteWorkbook() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void roundTripsEveryCell() throws IOException {
+        TestCaseCache cache = open();
+
+        Assert.assertEquals(parses, 1);
+        Assert.assertEquals(cache.size(), rows.size());
+        Assert.assertEquals(cache.row(0), new Object[] { "TC_001", "Case 1", "" });
+        Assert.assertEquals(cache.row(40), new Object[] { "TC_ü", "Ünïcode", "" });
+        Object[][] all = cache.rows();
+        Assert.assertEquals(all.length, rows.size());
+        Assert.assertEquals(all[39], new Object[] { "TC_040", "Case 40", "Yes" });
+    }
+
+    @Test
+    public void indexFindsTheFirstRowWithAnId() throws IOException {
+        TestCaseCache cache = open();
+
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals(cache.indexOf(String.format("TC_%03d", i + 1)), i);
+        }
+        Assert.assertEquals(cache.indexOf("TC_ü"), 40);
+        Assert.assertEquals(cache.indexOf("TC_999"), -1);
+        Assert.assertEquals(cache.indexOf(null), -1);
+    }
+
+    @Test
+    public void emptyWorkbookHasNoRows() throws IOException {
+        rows.clear();
+        TestCaseCache cache = open();
+
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertEquals(cache.indexOf("TC_001"), -1);
+        Assert.assertEquals(open().size(), 0);
+        Assert.assertEquals(parses, 1);
+    }
+
+    @Test
+    public void reusesACurrentCacheAndRestampsAnUnchangedWorkbook() throws IOException {
+        open();
+        Assert.assertTrue(open().isCurrent(workbook));
+        Assert.assertEquals(parses, 1);
+
+        // A fresh checkout changes the mtime but not the content
+        Files.setLastModifiedTime(workbook, FileTime.fromMillis(Files.getLastModifiedTime(workbook).toMillis() - 60_000));
+        TestCaseCache restamped = open();
+        Assert.assertEquals(parses, 1);
+        Assert.assertTrue(restamped.isCurrent(workbook));
+        Assert.assertEquals(restamped.indexOf("TC_040"), 39);
+    }
+
+    @Test
+    public void rebuildsWhenTheWorkbookOrColumnsChange() throws IOException {
+        TestCaseCache first = open();
+        Files.writeString(workbook, "version 2, longer");
+        Assert.assertFalse(first.isCurrent(workbook));
+
+        rows.add(new Object[] { "TC_100", "Added", "Yes" });
+        Assert.assertEquals(open().indexOf("TC_100"), rows.size() - 1);
+        Assert.assertEquals(parses, 2);
+
+        Assert.assertEquals(TestCaseCache.open(workbook, COLUMNS + 1, parser()).row(0).length, COLUMNS + 1);
+        Assert.assertEquals(parses, 3);
+    }
+
+    @Test
+    public void rebuildsATruncatedCache() throws IOException {
+        open();
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        for (int length : new int[] { bytes.length - 1, bytes.length / 2, OFFSETS_START + 4, 10 }) {
+            Files.write(cacheFile, Arrays.copyOf(bytes, length));
+            assertRebuilt();
+        }
+    }
+
+    @Test
+    public void rebuildsACacheWhoseHeaderDoesNotFitTheFile() throws IOException {
+        open();
+        assertRebuiltAfter(ROWS_OFFSET, rows.size() + 1);
+        assertRebuiltAfter(ROWS_OFFSET, -1);
+        assertRebuiltAfter(ROWS_OFFSET, Integer.MAX_VALUE);
+        assertRebuiltAfter(INDEX_OFFSET, 3);
+        assertRebuiltAfter(INDEX_OFFSET, 1 << 20);
+    }
+
+    @Test
+    public void rebuildsACacheWithBadOffsetsOrIndexEntries() throws IOException {
+        open();
+        int cells = rows.size() * COLUMNS;
+        assertRebuiltAfter(OFFSETS_START, 1);
+        assertRebuiltAfter(OFFSETS_START + 8, 0);
+        assertRebuiltAfter(OFFSETS_START + cells * 4, 1 << 20);
+        assertRebuiltAfter(OFFSETS_START + (cells + 1) * 4, rows.size() + 1);
+        assertRebuiltAfter(0, 0);
+    }
+
+    @Test(timeOut = 10_000)
+    public void rebuildsACacheWhoseIndexHasNoEmptySlot() throws IOException {
+        open();
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int indexStart = OFFSETS_START + (rows.size() * COLUMNS + 1) * 4;
+        for (int slot = 0; slot < buffer.getInt(INDEX_OFFSET); slot++) {
+            buffer.putInt(indexStart + slot * 4, 1 + slot % rows.size());
+        }
+        Files.write(cacheFile, bytes);
+        assertRebuilt();
+        Assert.assertEquals(open().indexOf("TC_999"), -1);
+    }
+
+    private void assertRebuiltAfter(int position, int value) throws IOException {
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        ByteBuffer.wrap(bytes).putInt(position, value);
+        Files.write(cacheFile, bytes);
+        assertRebuilt();
+    }
+
+    // The corrupt cache must be rejected on open and replaced, not fail on a later lookup
+    private void assertRebuilt() throws IOException {
+        int before = parses;
+        TestCaseCache cache = open();
+        Assert.assertEquals(parses, before + 1, "corrupt cache was not rebuilt");
+        Assert.assertEquals(cache.size(), rows.size());
+        Assert.assertEquals(cache.indexOf("TC_040"), 39);
+        Assert.assertEquals(cache.cell(rows.size() - 1, 1), "Duplicate ID");
+    }
+
+    private TestCaseCache open() throws IOException {
+        return TestCaseCache.open(workbook, COLUMNS, parser());
+    }
+
+    private Supplier<List<Object[]>> parser() {
+        return () -> {
+            parses++;
+            return new ArrayList<>(rows);
+        };
+    }
+}
@@ -0,0 +1,236 @@
+package com.transactioninsights.utils;
+
+import com.transactioninsights.config.TestConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+// Append-only log of test executions in <history.dir>/results.tsv, one line per attempt:
+// timestamp, run id, method id, outcome, duration (ms), attempt, failure signature.
+// Flakiness is derived per method over its last history.window runs.
+public class TestHistory {
+
+    public static final String PASS = "PASS";
+    public static final String FAIL = "FAIL";
+    public static final String RETRIED = "RETRIED";
+    public static final String SKIP = "SKIP";
+
+    private static final String FILE_NAME = "results.tsv";
+    private static final String RUN_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private static final Queue<String> pending = new ConcurrentLinkedQueue<>();
+
+    // methodId -> runs, oldest first; each run is its attempts in order
+    private final Map<String, List<List<Execution>>> runs;
+    private final int records;
+
+    private TestHistory(List<Execution> executions) {
+        this.records = executions.size();
+        Map<String, Map<String, List<Execution>>> byMethod = new HashMap<>();
+        for (Execution execution : executions) {
+            byMethod.computeIfAbsent(execution.methodId, id -> new LinkedHashMap<>())
+                    .computeIfAbsent(execution.runId, id -> new ArrayList<>())
+                    .add(execution);
+        }
+        int window = TestConfig.getHistoryWindow();
+        runs = new HashMap<>();
+        byMethod.forEach((methodId, byRun) -> {
+            List<List<Execution>> methodRuns = new ArrayList<>(byRun.values());
+            runs.put(methodId, methodRuns.subList(Math.max(0, methodRuns.size() - window), methodRuns.size()));
+        });
+    }
+
+    public static TestHistory load() {
+        return new TestHistory(read(file()));
+    }
+
+    public static void record(String methodId, String outcome, long durationMillis, int attempt, Throwable failure) {
+        pending.add(String.join("\t", String.valueOf(System.currentTimeMillis()), RUN_ID, methodId, outcome,
+                String.valueOf(durationMillis), String.valueOf(attempt), signature(failure)));
+    }
+
+    // Failure identity that is stable across runs: exception type plus the innermost project frame
+    public static String signature(Throwable failure) {
+        if (failure == null) {
+            return "";
+        }
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String frame = "";
+        for (StackTraceElement element : root.getStackTrace()) {
+            if (element.getClassName().startsWith("com.transactioninsights.")) {
+                String className = element.getClassName();
+                frame = " @ " + className.substring(className.lastIndexOf('.') + 1) + "." + element.getMethodName();
+                break;
+            }
+        }
+        return root.getClass().getSimpleName() + frame;
+    }
+
+    public int getRunCount(String methodId) {
+        return runs.getOrDefault(methodId, Collections.emptyList()).size();
+    }
+
+    // Share of recent runs that were flaky: the run needed a retry to pass, or its final outcome
+    // flipped relative to the previous run. A consistently failing test scores 0, not 1.
+    public double getFlakiness(String methodId) {
+        List<List<Execution>> methodRuns = runs.getOrDefault(methodId, Collections.emptyList());
+        if (methodRuns.isEmpty()) {
+            return 0;
+        }
+        int flaky = 0;
+        String previous = null;
+        for (List<Execution> run : methodRuns) {
+            String outcome = run.get(run.size() - 1).outcome;
+            boolean mixed = PASS.equals(outcome) && run.stream().anyMatch(e -> !PASS.equals(e.outcome));
+            boolean flipped = previous != null && !previous.equals(outcome)
+                    && !SKIP.equals(previous) && !SKIP.equals(outcome);
+            if (mixed || flipped) {
+                flaky++;
+            }
+            previous = outcome;
+        }
+        return (double) flaky / methodRuns.size();
+    }
+
+    public boolean isQuarantined(String methodId) {
+        return getRunCount(methodId) >= TestConfig.getQuarantineMinRuns()
+                && getFlakiness(methodId) >= TestConfig.getQuarantineThreshold();
+    }
+
+    public Set<String> getQuarantined() {
+        return runs.keySet().stream().filter(this::isQuarantined).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    // Appends this run's records under a file lock; compacts once the log outgrows its threshold
+    public static void save() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Path file = file();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel lockChannel = lockChannel(file);
+                 FileLock ignored = lockChannel.lock()) {
+                List<String> lines = new ArrayList<>();
+                for (String line; (line = pending.poll()) != null; ) {
+                    lines.add(line);
+                }
+                Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                List<Execution> executions = read(file);
+                if (executions.size() > TestConfig.getHistoryCompactThreshold()) {
+                    rewrite(file, new TestHistory(executions).retained());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save test history to " + file, e);
+        }
+    }
+
+    // Drops everything outside each method's window of recent runs
+    public static int compact() {
+        Path file = file();
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        try (FileChannel lockChannel = lockChannel(file);
+             FileLock ignored = lockChannel.lock()) {
+            TestHistory history = new TestHistory(read(file));
+            List<Execution> retained = history.retained();
+            rewrite(file, retained);
+            return history.records - retained.size();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compact test history " + file, e);
+        }
+    }
+
+    private List<Execution> retained() {
+        return runs.values().stream()
+                .flatMap(List::stream)
+                .flatMap(List::stream)
+                .sorted((a, b) -> Long.compare(a.timestamp, b.timestamp))
+                .collect(Collectors.toList());
+    }
+
+    private static void rewrite(Path file, List<Execution> executions) throws IOException {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Execution execution : executions) {
+                out.write(execution.line);
+                out.write('\n');
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static FileChannel lockChannel(Path file) throws IOException {
+        return FileChannel.open(file.resolveSibling(FILE_NAME + ".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+    }
+
+    private static List<Execution> read(Path file) {
+        List<Execution> executions = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return executions;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 7) {
+                    continue; // torn or hand-edited line
+                }
+                try {
+                    executions.add(new Execution(line, Long.parseLong(fields[0]), fields[1], fields[2], fields[3]));
+                } catch (NumberFormatException ignored) {
+                    // Skip corrupt entries
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read test history from " + file, e);
+        }
+        return executions;
+    }
+
+    private static Path file() {
+        return Paths.get(TestConfig.getHistoryDir(), FILE_NAME);
+    }
+
+    private static class Execution {
+        final String line;
+        final long timestamp;
+        final String runId;
+        final String methodId;
+        final String outcome;
+
+        Execution(String line, long timestamp, String runId, String methodId, String outcome) {
+            this.line = line;
+            this.timestamp = timestamp;
+            this.runId = runId;
+            this.methodId = methodId;
+            this.outcome = outcome;
+        }
+    }
+}
@@ -10,13 +10,28 @@ public class TestRetryAnalyzer implements IRetryAnalyzer {
 
     @Override
     public boolean retry(ITestResult result) {
-        if (retryCount < maxRetryCount) {
+        if (willRetry(result)) {
             retryCount++;
             return true;
         }
         return false;
     }
 
+    // Quarantined methods run exactly once, so their flakiness stays visible in the history
+    public boolean willRetry(ITestResult result) {
+        return retryCount < maxRetryCount
+                && !isHandledInSession(result)
+                && !QuarantineInterceptor.isQuarantineRun(result);
+    }
+
+    // In step mode, a step that already retried in-session and still failed on a transient error is not
+    // expected to recover in a new browser. Failures no step retry ran for keep their full retries.
+    public static boolean isHandledInSession(ITestResult result) {
+        Throwable failure = result.getThrowable();
+        return StepRetry.isStepMode() && failure != null && StepRetry.isRecoverable(failure)
+                && StepRetry.isExhausted(result);
+    }
+
     public int getRetryCount() {
         return retryCount;
     }